@@ -6,10 +6,15 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HspConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.FacetField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.StatField;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FutureHelper;
 import org.apache.commons.collections4.ListUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 abstract class BaseController<T> {
@@ -40,4 +45,26 @@ abstract class BaseController<T> {
 
     this.filterConverter = new StringToFilterQueryConverter(combinedFacetFields);
   }
+
+  /**
+   * Responds by the result of the search's {@code future} once it's completed. If the request fails before, e.g.
+   * because the client disconnected or the request timed out, the search is cancelled, which aborts its Solr requests
+   *
+   * @param future the future of the search's result
+   * @return the deferred response
+   * @param <R> the type of the result
+   */
+  protected static <R> DeferredResult<ResponseEntity<R>> respondWhenCompleted(final CompletableFuture<R> future) {
+    final DeferredResult<ResponseEntity<R>> response = new DeferredResult<>();
+    response.onError(ex -> future.cancel(true));
+    response.onTimeout(() -> future.cancel(true));
+    future.whenComplete((result, ex) -> {
+      if (ex != null) {
+        response.setErrorResult(FutureHelper.unwrap(ex));
+      } else {
+        response.setResult(new ResponseEntity<>(result, HttpStatus.OK));
+      }
+    });
+    return response;
+  }
 }
@@ -1,7 +1,15 @@
 package de.staatsbibliothek.berlin.hsp.fo.discovery.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.api.filter.DisplayFieldFilter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.api.filter.SearchFieldFilter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.api.util.ExportLimiter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.api.util.IdTypeMatcher;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.BatchConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ExportConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HspConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
@@ -10,19 +18,43 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotBlank;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 
 @Slf4j
 @Validated
 public abstract class BaseEntityController<T> extends BaseController<T> {
 
+  private static final String ID_FIELD = "id";
+  private static final String ID_SEPARATOR = ",";
+
   protected SearchFieldFilter searchFieldFilter;
   protected FieldProvider fieldProvider;
+  protected ExportConfig exportConfig = new ExportConfig();
+  protected ExportLimiter exportLimiter = new ExportLimiter(exportConfig);
+  protected BatchConfig batchConfig = new BatchConfig();
+  private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
 
   protected BaseEntityController(final BaseService<T> baseService, final HspConfig hspConfig, final HighlightConfig highlightConfig) {
     super(baseService, hspConfig, highlightConfig);
@@ -38,25 +70,110 @@ public abstract class BaseEntityController<T> extends BaseController<T> {
     this.fieldProvider = fieldProvider;
   }
 
+  @Autowired
+  public void setExportConfig(final ExportConfig exportConfig) {
+    this.exportConfig = exportConfig;
+  }
+
+  @Autowired
+  public void setExportLimiter(final ExportLimiter exportLimiter) {
+    this.exportLimiter = exportLimiter;
+  }
+
+  @Autowired
+  public void setBatchConfig(final BatchConfig batchConfig) {
+    this.batchConfig = batchConfig;
+  }
+
+  @Autowired
+  public void setObjectMapper(final ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
   protected Result<List<T>> byId(@NotBlank final String id, final List<String> fields) {
     final DisplayField[] filteredFields = DisplayFieldFilter.filterAndAddDisplaySuffix(fields);
     return byId(id, filteredFields);
   }
 
   protected Result<List<T>> byId(@NotBlank final String id, final DisplayField[] displayFields) {
+    final Result<List<T>> result = baseService.find(getIdSearchParams(id, displayFields));
+    checkIdResult(result, id);
+    return result;
+  }
+
+  /**
+   * @param id            the id to look up
+   * @param displayFields the fields to return
+   * @return the search params matching the document with the given {@code id}, at most two documents are requested, so
+   * an ambiguous id can be detected
+   */
+  protected BaseService.SearchParams getIdSearchParams(final String id, final DisplayField[] displayFields) {
     final BaseService.SearchParams params = BaseService.SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(displayFields)
         .withRows(2)
-        .withPhrase(id)
         .withSearchFields(List.of("id-search"))
         .build();
+    /* hsp ids are matched by a non-scored filter on the unique key instead of a parsed and spell checked query */
+    if (IdTypeMatcher.match(id) == IdTypeMatcher.IdType.HSP_OBJECT) {
+      params.setFilterQueries(Map.of(String.format("{!term f=%s cache=false}%s", ID_FIELD, id), ""));
+    } else {
+      params.setPhrase(id);
+    }
+    return params;
+  }
 
-    final Result<List<T>> result = baseService.find(params);
-    checkIdResult(result, id);
+  /**
+   * Resolves all of the given {@code ids} by a single search, filtering the entity's documents by their unique key
+   *
+   * @param ids           the ids to resolve, duplicates are resolved once
+   * @param displayFields the fields to return for each entity, the id is added if missing
+   * @param idGetter      returns the id of an entity
+   * @return the entities by their id, in the order of {@code ids}, ids without an entity are mapped to {@code null}
+   */
+  protected Map<String, T> byIds(final List<String> ids, final DisplayField[] displayFields, final Function<T, String> idGetter) {
+    final Set<String> uniqueIds = new LinkedHashSet<>(ids);
+    if (uniqueIds.isEmpty() || uniqueIds.size() > batchConfig.getMaxSize()) {
+      throw ExceptionFactory.getException(ExceptionType.INVALID_PARAM, String.format("The number of ids has to be between 1 and %d.", batchConfig.getMaxSize()));
+    }
+    if (uniqueIds.stream().anyMatch(id -> StringUtils.isBlank(id) || id.contains(ID_SEPARATOR))) {
+      throw ExceptionFactory.getException(ExceptionType.INVALID_PARAM, String.format("Ids must neither be blank nor contain '%s'.", ID_SEPARATOR));
+    }
+
+    final Map<String, String> filterQueries = new TreeMap<>();
+    final Map<String, String> typeFilterQueries = filterConverter.convert(null, baseService.getTypeFilter());
+    if (typeFilterQueries != null) {
+      filterQueries.putAll(typeFilterQueries);
+    }
+    /* the sets of ids hardly repeat, so they're kept out of the filter cache */
+    filterQueries.put(String.format("{!terms f=%s cache=false}%s", ID_FIELD, String.join(ID_SEPARATOR, uniqueIds)), "");
+    final BaseService.SearchParams params = BaseService.SearchParams.builder()
+        .withDeadlineExempt(true)
+        .withDisplayFields(withId(displayFields))
+        .withFilterQueries(filterQueries)
+        .withRows(uniqueIds.size())
+        .build();
+
+    final Map<String, T> result = new LinkedHashMap<>();
+    uniqueIds.forEach(id -> result.put(id, null));
+    for (T entity : baseService.find(params).getPayload()) {
+      final String id = idGetter.apply(entity);
+      if (result.containsKey(id)) {
+        result.put(id, entity);
+      }
+    }
     return result;
   }
 
-  protected void checkIdResult(final Result<List<T>> result, final String id) {
+  /* an empty array returns all fields, the id is part of them already */
+  private static DisplayField[] withId(final DisplayField[] displayFields) {
+    if (displayFields.length == 0 || ArrayUtils.contains(displayFields, DisplayField.ID)) {
+      return displayFields;
+    }
+    return ArrayUtils.add(displayFields, DisplayField.ID);
+  }
+
+  protected void checkIdResult(final Result<? extends List<?>> result, final String id) {
     if (result.getPayload().isEmpty()) {
       throw ExceptionFactory.getException(ExceptionType.NOT_FOUND, String.format("No %s with id %s found.", baseService.getEntityName(), id));
     }
@@ -75,6 +192,67 @@ public abstract class BaseEntityController<T> extends BaseController<T> {
     return baseService.find(params);
   }
 
+  /**
+   * Streams all entities matching the filter query as newline delimited JSON, one entity per line. The entities are
+   * fetched page by page while they're written, the next page isn't fetched before the previous one was flushed to the
+   * client, so a slow client slows down the export instead of filling up the memory
+   *
+   * @param fields   the fields to return for each entity
+   * @param fq       the filter query, may be {@code null}
+   * @param pageSize the number of entities fetched from Solr per page, the configured default is used if {@code null}
+   * @param request  the export's request, its timeout is raised to the export's timeout
+   * @return the streamed response
+   */
+  protected ResponseEntity<StreamingResponseBody> export(final DisplayField[] fields, final String fq, final Integer pageSize, final HttpServletRequest request) {
+    final int rows = pageSize == null ? exportConfig.getPageSize() : pageSize;
+    if (rows < 1 || rows > exportConfig.getMaxPageSize()) {
+      throw ExceptionFactory.getException(ExceptionType.INVALID_PARAM, String.format("The page size has to be between 1 and %d.", exportConfig.getMaxPageSize()));
+    }
+    final BaseService.SearchParams params = BaseService.SearchParams.builder()
+        .withDisplayFields(fields)
+        .withFilterQueries(filterConverter.convert(fq, baseService.getTypeFilter()))
+        .withRows(rows)
+        .build();
+
+    final AsyncWebRequest asyncWebRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+    if (asyncWebRequest != null) {
+      asyncWebRequest.setTimeout(exportConfig.getTimeout().toMillis());
+    }
+
+    final Runnable release = exportLimiter.acquire();
+    /* the body releases the permit once it's done, the completion of the request does so if the body never ran */
+    if (asyncWebRequest != null) {
+      asyncWebRequest.addCompletionHandler(release);
+    }
+    final ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    final StreamingResponseBody body = outputStream -> {
+      try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        baseService.export(params, page -> writePage(writer, generator, page));
+      } catch (UncheckedIOException ex) {
+        log.debug("Export of {}s aborted: {}", baseService.getEntityName(), ex.getMessage());
+        throw ex.getCause();
+      } finally {
+        release.run();
+      }
+    };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_NDJSON)
+        .body(body);
+  }
+
+  private static <E> void writePage(final ObjectWriter writer, final JsonGenerator generator, final List<E> page) {
+    try {
+      for (E entity : page) {
+        writer.writeValue(generator, entity);
+        generator.writeRaw('\n');
+      }
+      generator.flush();
+    } catch (IOException ex) {
+      throw new UncheckedIOException(ex);
+    }
+  }
+
   protected List<String> getSearchFieldsWithDefaults(final List<String> fieldNames) {
     final List<String> filteredFieldNames = searchFieldFilter.filter(fieldNames);
     if (filteredFieldNames.isEmpty()) {
@@ -27,6 +27,7 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 
@@ -91,7 +92,7 @@ public class HspCatalogController extends BaseEntityController<HspCatalog> {
       @ApiResponse(content = @Content(schema = @Schema(implementation = Result.class), mediaType = MediaType.APPLICATION_JSON_VALUE), description = "search result", responseCode = "200"),
       @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "JSON processing error", responseCode = "500")
   })
-  public ResponseEntity<Result<List<HspCatalog>>> search(
+  public DeferredResult<ResponseEntity<Result<List<HspCatalog>>>> search(
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_WITH_EXTENDED, example = API_PARAM_EXAMPLE_QUERY)
       @RequestParam(name = "q") final String q,
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_FIELDS, examples = {@ExampleObject(value = "repository-search")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
@@ -118,6 +119,6 @@ public class HspCatalogController extends BaseEntityController<HspCatalog> {
         .withStats(this.catalogStatsFields)
         .withUseSpellCorrection(true)
         .build();
-    return new ResponseEntity<>(baseService.find(params), HttpStatus.OK);
+    return respondWhenCompleted(baseService.findAsync(params));
   }
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.Ordered;
@@ -27,8 +28,11 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 import static de.staatsbibliothek.berlin.hsp.fo.discovery.util.Constants.*;
 
@@ -74,9 +78,37 @@ public class HspDescriptionController extends BaseEntityController<HspDescriptio
     return new ResponseEntity<>(result, HttpStatus.OK);
   }
 
+  @ApiResponses(value = {@ApiResponse(content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE), description = "All Descriptions matching the filter query, one per line", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If the page size is invalid", responseCode = "400"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If the maximum number of concurrent exports is reached", responseCode = "429"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If something went terribly wrong", responseCode = "500")})
+  @GetMapping(value = {"/export"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(
+      @Parameter(description = "Comma separated list of fields, that should be returned for each object", examples = {@ExampleObject(value = "id")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
+      @RequestParam(defaultValue = "", name = "fields", required = false)
+      final List<String> fields,
+      @Parameter(description = API_PARAM_DESCRIPTION_FILTER_QUERY, example = API_PARAM_EXAMPLE_FILTER_QUERY)
+      @RequestParam(name = "fq", required = false) final String fq,
+      @Parameter(description = "Number of documents fetched from the index at once, doesn't limit the number of exported documents.")
+      @RequestParam(name = "pageSize", required = false)
+      final Integer pageSize,
+      final HttpServletRequest request) {
+    final DisplayField[] filteredFields = DisplayFieldFilter.filterAndAddDisplaySuffix(fields);
+    return export(filteredFields, fq, pageSize, request);
+  }
+
+  @ApiResponses(value = {@ApiResponse(content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE), description = "The Descriptions by their id, ids without a match are mapped to null", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If there are no ids, too many ids or blank ones", responseCode = "400"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If something went terribly wrong", responseCode = "500")})
+  @PostMapping(value = {"/batch"}, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Map<String, HspDescription>> getByIds(
+      @Parameter(description = "The ids to resolve")
+      @RequestBody final List<String> ids,
+      @Parameter(description = "Comma separated list of fields, that should be returned for each object", examples = {@ExampleObject(value = "id")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
+      @RequestParam(defaultValue = "", name = "fields", required = false)
+      final List<String> fields) {
+    final DisplayField[] filteredFields = DisplayFieldFilter.filterAndAddDisplaySuffix(fields);
+    return new ResponseEntity<>(byIds(ids, filteredFields, HspDescription::getId), HttpStatus.OK);
+  }
+
   @GetMapping(value = {"/search"}, produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiResponses(value = {@ApiResponse(content = @Content(schema = @Schema(implementation = Result.class), mediaType = MediaType.APPLICATION_JSON_VALUE), description = "search result", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "JSON processing error", responseCode = "500")})
-  public ResponseEntity<Result<List<HspDescription>>> search(
+  public DeferredResult<ResponseEntity<Result<List<HspDescription>>>> search(
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_WITH_EXTENDED, example = API_PARAM_EXAMPLE_QUERY)
       @RequestParam(name = "q") final String q,
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_FIELDS, examples = {@ExampleObject(value = "repository-search")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
@@ -102,6 +134,6 @@ public class HspDescriptionController extends BaseEntityController<HspDescriptio
         .withStats(this.statsFields)
         .withUseSpellCorrection(true)
         .build();
-    return new ResponseEntity<>(baseService.find(params), HttpStatus.OK);
+    return respondWhenCompleted(baseService.findAsync(params));
   }
 }
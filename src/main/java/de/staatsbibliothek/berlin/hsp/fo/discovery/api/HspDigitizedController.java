@@ -16,14 +16,18 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 import static de.staatsbibliothek.berlin.hsp.fo.discovery.util.Constants.*;
 
@@ -53,6 +57,34 @@ public class HspDigitizedController extends BaseEntityController<HspDigitized> {
     return new ResponseEntity<>(result, HttpStatus.OK);
   }
 
+  @ApiResponses(value = {@ApiResponse(content = @Content(mediaType = MediaType.APPLICATION_NDJSON_VALUE), description = "All Digitizeds matching the filter query, one per line", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If the page size is invalid", responseCode = "400"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If the maximum number of concurrent exports is reached", responseCode = "429"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If something went terribly wrong", responseCode = "500")})
+  @GetMapping(value = {"/export"}, produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> export(
+      @Parameter(description = "Comma separated list of fields, that should be returned for each object", examples = {@ExampleObject(value = "id")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
+      @RequestParam(defaultValue = "", name = "fields", required = false)
+      final List<String> fields,
+      @Parameter(description = API_PARAM_DESCRIPTION_FILTER_QUERY, example = API_PARAM_EXAMPLE_FILTER_QUERY)
+      @RequestParam(name = "fq", required = false) final String fq,
+      @Parameter(description = "Number of documents fetched from the index at once, doesn't limit the number of exported documents.")
+      @RequestParam(name = "pageSize", required = false)
+      final Integer pageSize,
+      final HttpServletRequest request) {
+    final DisplayField[] filteredFields = DisplayFieldFilter.filterAndAddDisplaySuffix(fields);
+    return export(filteredFields, fq, pageSize, request);
+  }
+
+  @ApiResponses(value = {@ApiResponse(content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE), description = "The Digitizeds by their id, ids without a match are mapped to null", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If there are no ids, too many ids or blank ones", responseCode = "400"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If something went terribly wrong", responseCode = "500")})
+  @PostMapping(value = {"/batch"}, consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Map<String, HspDigitized>> getByIds(
+      @Parameter(description = "The ids to resolve")
+      @RequestBody final List<String> ids,
+      @Parameter(description = "Comma separated list of fields, that should be returned for each object", examples = {@ExampleObject(value = "id")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
+      @RequestParam(defaultValue = "", name = "fields", required = false)
+      final List<String> fields) {
+    final DisplayField[] filteredFields = DisplayFieldFilter.filterAndAddDisplaySuffix(fields);
+    return new ResponseEntity<>(byIds(ids, filteredFields, HspDigitized::getId), HttpStatus.OK);
+  }
+
   @ApiResponses(value = {@ApiResponse(content = @Content(schema = @Schema(implementation = Result.class), mediaType = MediaType.APPLICATION_JSON_VALUE), description = "The Digitized for the given id", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "No KOD was found for the given Id", responseCode = "404"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "Something went terribly wrong", responseCode = "500")})
   @GetMapping(value = {"/{id}"}, produces = MediaType.APPLICATION_JSON_VALUE)
   public ResponseEntity<HspDigitized> getById(
@@ -67,7 +99,7 @@ public class HspDigitizedController extends BaseEntityController<HspDigitized> {
 
   @GetMapping(value = {"/search"}, produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiResponses(value = {@ApiResponse(content = @Content(schema = @Schema(implementation = Result.class), mediaType = MediaType.APPLICATION_JSON_VALUE), description = "search result", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "JSON processing error", responseCode = "500")})
-  public ResponseEntity<Result<List<HspDigitized>>> search(
+  public DeferredResult<ResponseEntity<Result<List<HspDigitized>>>> search(
       @Parameter(description = "A search term or phrase. Only manifest URIs are supported currently.", example = "https://content.staatsbibliothek-berlin.de/dc/835110419/manifest")
       @RequestParam(name = "q") final String q,
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_FIELDS, examples = { @ExampleObject(value = "manifest-uri-search")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
@@ -86,6 +118,6 @@ public class HspDigitizedController extends BaseEntityController<HspDigitized> {
         .withStart(start)
         .withStats(this.statsFields)
         .build();
-    return new ResponseEntity<>(baseService.find(params), HttpStatus.OK);
+    return respondWhenCompleted(baseService.findAsync(params));
   }
 }
@@ -29,8 +29,8 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HspConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObjectGroup;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.HspObjectGroupService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.SortField;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -49,8 +49,10 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static de.staatsbibliothek.berlin.hsp.fo.discovery.util.Constants.*;
 
@@ -64,9 +66,12 @@ import static de.staatsbibliothek.berlin.hsp.fo.discovery.util.Constants.*;
 @Validated
 public class HspObjectGroupController extends BaseEntityController<HspObjectGroup> {
 
+  private final HspObjectGroupService objectGroupService;
+
   @Autowired
-  public HspObjectGroupController(final BaseService<HspObjectGroup> baseService, final HspConfig hspConfig, final HighlightConfig highlightConfig) {
-    super(baseService, hspConfig, highlightConfig);
+  public HspObjectGroupController(final HspObjectGroupService objectGroupService, final HspConfig hspConfig, final HighlightConfig highlightConfig) {
+    super(objectGroupService, hspConfig, highlightConfig);
+    this.objectGroupService = objectGroupService;
   }
 
   @ApiResponses(value = {@ApiResponse(content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE), description = "All HspObjectGroups within the range of [start, start+rows]", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If something went terribly wrong", responseCode = "500")})
@@ -98,6 +103,7 @@ public class HspObjectGroupController extends BaseEntityController<HspObjectGrou
       @PathVariable @NotBlank final String id) {
     final SearchParams params = SearchParams.builder()
         .withCollapse(true)
+        .withDeadlineExempt(true)
         .withRows(2)
         .withPhrase(id)
         .withSearchFields(List.of("id-search"))
@@ -109,6 +115,23 @@ public class HspObjectGroupController extends BaseEntityController<HspObjectGrou
         .get(0)), HttpStatus.OK);
   }
 
+  @ApiResponses(value = {@ApiResponse(content = @Content(schema = @Schema(implementation = Result.class), mediaType = MediaType.APPLICATION_JSON_VALUE), description = "The members of the HspObjectGroup for the given id within the range of [start, start+rows]", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If an invalid member type, start or number of rows was given", responseCode = "400")})
+  @GetMapping(value = {"/{id}/members"}, produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<Result<HspObjectGroup>> findMembers(
+      @PathVariable @NotBlank final String id,
+      @Parameter(description = "Comma separated list of member types, that should be returned", examples = {@ExampleObject(value = "hsp:digitized")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
+      @RequestParam(defaultValue = "", name = "type", required = false)
+      final List<String> type,
+      @Parameter(description = API_PARAM_DESCRIPTION_START)
+      @RequestParam(name = "start", required = false, defaultValue = "0")
+      final long start,
+      @Parameter(description = API_PARAM_DESCRIPTION_ROWS)
+      @RequestParam(name = "rows", required = false, defaultValue = "10")
+      final long rows) {
+    final Result<HspObjectGroup> result = objectGroupService.findMembers(id, type, start, rows);
+    return new ResponseEntity<>(result, HttpStatus.OK);
+  }
+
   /**
    * @param q     The term to be searched for. This can be either a single term,
    *              that can be wild-carded by using '?' (representing exact one character)
@@ -136,7 +159,7 @@ public class HspObjectGroupController extends BaseEntityController<HspObjectGrou
    */
   @GetMapping(value = {"/search"}, produces = MediaType.APPLICATION_JSON_VALUE)
   @ApiResponses(value = {@ApiResponse(content = @Content(schema = @Schema(implementation = Result.class), mediaType = MediaType.APPLICATION_JSON_VALUE), description = "search result", responseCode = "200"), @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "JSON processing error", responseCode = "500")})
-  public ResponseEntity<Result<List<HspObjectGroup>>> search(
+  public DeferredResult<ResponseEntity<Result<List<HspObjectGroup>>>> search(
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_WITH_EXTENDED, example = API_PARAM_EXAMPLE_QUERY)
       @RequestParam(name = "q") final String q,
       @Parameter(description = API_PARAM_DESCRIPTION_QUERY_FIELDS, examples = {@ExampleObject(value = "repository-search")}, explode = Explode.TRUE, style = ParameterStyle.SIMPLE)
@@ -157,11 +180,10 @@ public class HspObjectGroupController extends BaseEntityController<HspObjectGrou
       @Parameter(description = "Whether this is an extended search query or not")
       @RequestParam(name = "isExtended", required = false, defaultValue = "false")
       final boolean isExtended) {
-    final Result<List<HspObjectGroup>> result = performSearch(q, getSearchFieldsWithDefaults(qf), fq, hl, start, rows, sort, isExtended);
-    return new ResponseEntity<>(result, HttpStatus.OK);
+    return respondWhenCompleted(performSearch(q, getSearchFieldsWithDefaults(qf), fq, hl, start, rows, sort, isExtended));
   }
 
-  private Result<List<HspObjectGroup>> performSearch(final String query, final List<String> searchFields, final String filterQuery, final boolean hl, final long start, final long rows, final SortField sort, boolean isExact) {
+  private CompletableFuture<Result<List<HspObjectGroup>>> performSearch(final String query, final List<String> searchFields, final String filterQuery, final boolean hl, final long start, final long rows, final SortField sort, boolean isExact) {
     final SearchParams params = SearchParams.builder()
         .withCollapse(true)
         .withFacets(this.defaultFacetFields)
@@ -180,6 +202,6 @@ public class HspObjectGroupController extends BaseEntityController<HspObjectGrou
     } else {
       params.setPhraseExtended(query);
     }
-    return baseService.find(params);
+    return baseService.findAsync(params);
   }
 }
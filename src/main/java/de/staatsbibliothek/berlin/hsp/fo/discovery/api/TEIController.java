@@ -3,46 +3,176 @@ package de.staatsbibliothek.berlin.hsp.fo.discovery.api;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HspConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.TeiDocument;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl.TEIService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.NotBlank;
+import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RequestMapping("/tei")
 @RestController
 @Tag(name = "TEI", description = "TEI for KODs and Descriptions")
 public class TEIController extends BaseEntityController<String> {
 
+  private static final String GZIP = "gzip";
+  /* compressing small documents costs more than it saves */
+  private static final int GZIP_MIN_LENGTH = 1024;
+  private static final int WRITE_CHUNK_SIZE = 8192;
+
+  private final TEIService teiService;
+
   @Autowired
   public TEIController(final TEIService baseService, final HspConfig hspConfig, final HighlightConfig highlightConfig) {
     super(baseService, hspConfig, highlightConfig);
+    this.teiService = baseService;
   }
 
   /**
-   * Get the original TEI XML document.
+   * Get the original TEI XML document. It's written to the response as it's encoded, without copying it into a byte
+   * array first. Its strong ETag is derived from the document's modification date, so a repeated request by a client
+   * knowing the current version is answered by 304 without loading the TEI
    *
    * @param id HSP description or HSP object ID
-   * @return TEI XML doc for usage in webapp
    */
   @ApiResponses(value = {
       @ApiResponse(content = @Content(mediaType = MediaType.TEXT_XML_VALUE), description = "the TEI XML document", responseCode = "200"),
+      @ApiResponse(description = "If the client's version of the TEI XML document is still current", responseCode = "304"),
       @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If no TEI was found for the given Id", responseCode = "404"),
       @ApiResponse(content = @Content(mediaType = MediaType.TEXT_PLAIN_VALUE), description = "If the result is not unique", responseCode = "500")})
   @GetMapping(path = "/{id}", produces = MediaType.TEXT_XML_VALUE)
-  public String getXmlDocumentById(@NotBlank @PathVariable String id) {
-    final Result<List<String>> result = byId(id, new DisplayField[]{ DisplayField.TEI_DOCUMENT });
-    return result.getPayload()
-        .get(0);
+  public void getXmlDocumentById(@NotBlank @PathVariable String id, final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+    final boolean gzip = acceptsGzip(request);
+    final ServletWebRequest webRequest = new ServletWebRequest(request, response);
+    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    /* a conditional request is checked against the modification date first, so an unchanged TEI isn't loaded at all */
+    if (request.getHeader(HttpHeaders.IF_NONE_MATCH) != null || request.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null) {
+      final TeiDocument version = findTeiDocument(id, DisplayField.LAST_MODIFIED);
+      if (isUnchanged(request, version, gzip)) {
+        webRequest.checkNotModified(getClientETag(request, version, gzip), version.lastModified().getTime());
+        return;
+      }
+    }
+
+    final TeiDocument document = findTeiDocument(id, DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED);
+    if (StringUtils.isBlank(document.content())) {
+      throw ExceptionFactory.getException(ExceptionType.NOT_FOUND, String.format("No %s with id %s found.", baseService.getEntityName(), id));
+    }
+    final boolean compressed = gzip && document.content().length() >= GZIP_MIN_LENGTH;
+    if (isNotModified(webRequest, document, compressed)) {
+      return;
+    }
+    write(document.content(), compressed, response);
+  }
+
+  private TeiDocument findTeiDocument(final String id, final DisplayField... displayFields) {
+    final Result<List<TeiDocument>> result = teiService.findTeiDocuments(getIdSearchParams(id, displayFields));
+    checkIdResult(result, id);
+    return result.getPayload().getFirst();
+  }
+
+  /* sets the ETag and Last-Modified headers as well, unless the modification date is unknown */
+  private static boolean isNotModified(final ServletWebRequest webRequest, final TeiDocument document, final boolean compressed) {
+    return document.lastModified() != null && webRequest.checkNotModified(getETag(document, compressed), document.lastModified().getTime());
+  }
+
+  /* checked without a response, so no validators are set unless the request is answered by 304 */
+  private static boolean isUnchanged(final HttpServletRequest request, final TeiDocument version, final boolean gzip) {
+    return version.lastModified() != null && new ServletWebRequest(request).checkNotModified(getClientETag(request, version, gzip), version.lastModified().getTime());
+  }
+
+  /* whether the TEI is compressed depends on its length, which is unknown without loading it, so the client's ETag may
+   * be either one of the version's. Without an ETag sent by the client, the modification date is checked only */
+  private static String getClientETag(final HttpServletRequest request, final TeiDocument version, final boolean gzip) {
+    final String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+    if (ifNoneMatch == null) {
+      return null;
+    }
+    final String compressedETag = getETag(version, true);
+    return gzip && ifNoneMatch.contains(compressedETag) ? compressedETag : getETag(version, false);
+  }
+
+  /* the compressed representation differs by its bytes, so it's got an ETag of its own */
+  private static String getETag(final TeiDocument document, final boolean compressed) {
+    return '"' + Long.toHexString(document.lastModified().getTime()) + (compressed ? "-" + GZIP : "") + '"';
+  }
+
+  private static boolean acceptsGzip(final HttpServletRequest request) {
+    final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      final String[] parts = coding.trim().split(";");
+      if (GZIP.equalsIgnoreCase(parts[0].trim())) {
+        return parts.length == 1 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+      }
+    }
+    return false;
+  }
+
+  private static void write(final String content, final boolean gzip, final HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.TEXT_XML_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    final OutputStream outputStream;
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+      outputStream = new GZIPOutputStream(response.getOutputStream(), WRITE_CHUNK_SIZE);
+    } else {
+      response.setContentLengthLong(getUtf8Length(content));
+      outputStream = response.getOutputStream();
+    }
+    try (Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8)) {
+      for (int offset = 0; offset < content.length(); offset += WRITE_CHUNK_SIZE) {
+        writer.write(content, offset, Math.min(WRITE_CHUNK_SIZE, content.length() - offset));
+      }
+    }
+  }
+
+  /**
+   * @return the number of bytes of {@code content} encoded as UTF-8, unpaired surrogates are counted as the single
+   * byte of their replacement
+   */
+  static long getUtf8Length(final String content) {
+    long length = 0;
+    for (int i = 0; i < content.length(); i++) {
+      final char c = content.charAt(i);
+      if (c < 0x80) {
+        length++;
+      } else if (c < 0x800) {
+        length += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < content.length() && Character.isLowSurrogate(content.charAt(i + 1))) {
+        length += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        length++;
+      } else {
+        length += 3;
+      }
+    }
+    return length;
   }
 }
@@ -0,0 +1,48 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.api.converter;
+
+import java.util.List;
+
+/**
+ * The value of a single field's filter, as given in the filter query's JSON
+ */
+sealed interface Filter {
+
+  /**
+   * Matches a single term, e.g. {@code "foo": "bar"}
+   */
+  record Term(String value) implements Filter {}
+
+  /**
+   * Matches a boolean value, e.g. {@code "foo": true}
+   */
+  record Flag(boolean value) implements Filter {}
+
+  /**
+   * Matches any of the given terms, e.g. {@code "foo": ["bar", "baz"]}
+   *
+   * @param terms    the string terms
+   * @param flags    the boolean terms
+   * @param missing  if {@code true}, documents without a value are matched as well
+   */
+  record Terms(List<String> terms, List<Boolean> flags, boolean missing) implements Filter {
+
+    boolean isEmpty() {
+      return terms.isEmpty() && flags.isEmpty();
+    }
+  }
+
+  /**
+   * Matches a range of numbers, e.g. {@code "foo": {"from": 1, "to": 10}}
+   *
+   * @param from    the lower bound, may be {@code null}
+   * @param to      the upper bound, may be {@code null}
+   * @param exact   if {@code true}, a document's range has to lie within the bounds, instead of intersecting them
+   * @param missing if {@code true}, documents without a value are matched as well
+   */
+  record Range(Number from, Number to, boolean exact, boolean missing) implements Filter {
+
+    boolean isBounded() {
+      return from != null && to != null;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.api.converter;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses the filter query's JSON into a {@link Filter} per field by streaming its tokens, without building an
+ * intermediate tree of untyped maps and lists. Values that don't describe a filter are skipped, their field's filter
+ * is {@code null} then
+ */
+final class FilterParser {
+
+  /* thread-safe and shared, so Jackson's caches are built once */
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final ObjectReader READER = MAPPER.reader();
+
+  private static final String FROM = "from";
+  private static final String TO = "to";
+  private static final String EXACT = "exact";
+  private static final String MISSING = "missing";
+
+  private FilterParser() {}
+
+  /**
+   * @param json the filter query as JSON object
+   * @return the filters by their field's name
+   * @throws IOException if {@code json} is no valid JSON object
+   */
+  static Map<String, Filter> parse(final String json) throws IOException {
+    try (JsonParser parser = READER.createParser(json)) {
+      return parse(parser);
+    }
+  }
+
+  /**
+   * @param filters the filters as objects, e.g. strings, lists or maps, as deserialized from JSON
+   * @return the filters by their field's name
+   * @throws IOException if {@code filters} don't describe a JSON object
+   */
+  static Map<String, Filter> parse(final Map<String, Object> filters) throws IOException {
+    try (JsonParser parser = READER.treeAsTokens(MAPPER.valueToTree(filters))) {
+      return parse(parser);
+    }
+  }
+
+  private static Map<String, Filter> parse(final JsonParser parser) throws IOException {
+    if (parser.nextToken() != JsonToken.START_OBJECT) {
+      throw new JsonParseException(parser, "The filter query has to be a JSON object");
+    }
+    final Map<String, Filter> filters = new HashMap<>();
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String field = parser.currentName();
+      filters.put(field, parseValue(parser, parser.nextToken()));
+    }
+    return filters;
+  }
+
+  private static Filter parseValue(final JsonParser parser, final JsonToken token) throws IOException {
+    return switch (token) {
+      case VALUE_STRING -> new Filter.Term(parser.getText());
+      case VALUE_TRUE, VALUE_FALSE -> new Filter.Flag(parser.getBooleanValue());
+      case START_ARRAY -> parseTerms(parser);
+      case START_OBJECT -> parseRange(parser);
+      default -> null;
+    };
+  }
+
+  /* only arrays starting with a string or boolean are terms, others are skipped */
+  private static Filter.Terms parseTerms(final JsonParser parser) throws IOException {
+    final List<String> terms = new ArrayList<>();
+    final List<Boolean> flags = new ArrayList<>();
+    boolean missing = false;
+    JsonToken token = parser.nextToken();
+    if (token != JsonToken.END_ARRAY && token != JsonToken.VALUE_STRING && !token.isBoolean()) {
+      for (; token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+        parser.skipChildren();
+      }
+      return null;
+    }
+    for (; token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+      if (token == JsonToken.VALUE_STRING) {
+        if (QueryResponse2ResponseEntityConverter.FIELD_NAME_MISSING.equals(parser.getText())) {
+          missing = true;
+        } else {
+          terms.add(parser.getText());
+        }
+      } else if (token.isBoolean()) {
+        flags.add(parser.getBooleanValue());
+      } else {
+        parser.skipChildren();
+      }
+    }
+    return new Filter.Terms(terms, flags, missing);
+  }
+
+  private static Filter.Range parseRange(final JsonParser parser) throws IOException {
+    Number from = null;
+    Number to = null;
+    boolean exact = false;
+    boolean missing = false;
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      final String name = parser.currentName();
+      final JsonToken token = parser.nextToken();
+      switch (name) {
+        case FROM -> from = token.isNumeric() ? parser.getNumberValue() : null;
+        case TO -> to = token.isNumeric() ? parser.getNumberValue() : null;
+        case EXACT -> exact = token == JsonToken.VALUE_TRUE;
+        case MISSING -> missing = token == JsonToken.VALUE_TRUE;
+        default -> parser.skipChildren();
+      }
+    }
+    return new Filter.Range(from, to, exact, missing);
+  }
+}
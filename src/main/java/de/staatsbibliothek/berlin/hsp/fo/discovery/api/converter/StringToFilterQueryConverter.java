@@ -24,23 +24,26 @@
  */
 package de.staatsbibliothek.berlin.hsp.fo.discovery.api.converter;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.api.HspObjectGroupController;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.SortField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.StatField;
 import jakarta.annotation.Nonnull;
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 /**
  * converts a json string to a solr conform query
@@ -51,12 +54,23 @@ public class StringToFilterQueryConverter {
 
   private static final Logger logger = LoggerFactory.getLogger(StringToFilterQueryConverter.class);
 
-  private final List<String> filterFields;
+  private static final String ORIG_DATE_FACET = "orig-date-facet";
 
-  private static final String MISSING = "missing";
+  /* arbitrary ranges are hardly ever repeated, so they are not cached, which keeps the filter cache for the repeated
+   * facet filters. Uncached filters are evaluated after the cached ones, by ascending cost */
+  private static final String RANGE_LOCAL_PARAMS = "{!cache=false cost=50}";
+  private static final String ORIG_DATE_LOCAL_PARAMS = "{!cache=false cost=100}";
+
+  /* the same filters are requested repeatedly, e.g. while paging, longer inputs are not cached to bound the memory */
+  private static final int CACHE_SIZE = 1024;
+  private static final int MAX_CACHED_INPUT_LENGTH = 2048;
+
+  private final Set<String> filterFields;
+  /* the converted filter queries by the input and the default filter, none if there are no filter queries */
+  private final Map<CacheKey, Optional<Map<String, String>>> cache = Collections.synchronizedMap(new LRUMap<>(CACHE_SIZE));
 
   public StringToFilterQueryConverter(final List<String> filterFields) {
-    this.filterFields = filterFields;
+    this.filterFields = new HashSet<>(filterFields);
   }
 
   /**
@@ -64,112 +78,96 @@ public class StringToFilterQueryConverter {
    *              as JSON string.
    * @return Map with individual filter queries as key and an optional filter query field name as
    * value if a tag is required for excluding this query from the facet / stats calculation
-   * for the field. See <a href="https://solr.apache.org/guide/solr/latest/query-guide/faceting.html#tagging-and-excluding-filters">Solr Faceting<a/>
+   * for the field. See <a href="https://solr.apache.org/guide/solr/latest/query-guide/faceting.html#tagging-and-excluding-filters">Solr Faceting<a/>.
+   * The filter queries are sorted and their values as well, so equal filters hit Solr's filter cache regardless of
+   * the order they were given in. The map is unmodifiable, because it's cached
    */
-  @SuppressWarnings("unchecked")
   public Map<String, String> convert(final String input, @Nonnull final Map<String, Object> defaultFilter) {
-    Map<String, Object> map;
-    Map<String, String> filterQueries = new HashMap<>();
-    map = new HashMap<>(defaultFilter);
-    if(input != null) {
-      try {
-        map.putAll(new ObjectMapper().readValue(input, new TypeReference<>() {
-        }));
-      } catch (JsonProcessingException ex) {
-        logger.info("Error while processing filter query {} {}: ", input, ex.getMessage(), ex);
-        return Map.of();
-      }
+    if (input != null && input.length() > MAX_CACHED_INPUT_LENGTH) {
+      return doConvert(input, defaultFilter).orElse(null);
+    }
+    final CacheKey key = new CacheKey(input, defaultFilter);
+    Optional<Map<String, String>> filterQueries = cache.get(key);
+    if (filterQueries == null) {
+      filterQueries = doConvert(input, defaultFilter);
+      cache.put(key, filterQueries);
     }
+    return filterQueries.orElse(null);
+  }
 
-    for (Entry<String, Object> entry : map.entrySet()) {
-      if (entry.getValue() == null || entry.getKey() == null || !filterFields.contains(entry.getKey().equals("orig-date-facet") ? StatField.ORIG_DATE_FROM.getValue() : entry.getKey())) {
-        continue;
+  private Optional<Map<String, String>> doConvert(final String input, final Map<String, Object> defaultFilter) {
+    final Map<String, Filter> filters = new HashMap<>();
+    try {
+      filters.putAll(FilterParser.parse(defaultFilter));
+      if (input != null) {
+        filters.putAll(FilterParser.parse(input));
       }
+    } catch (IOException ex) {
+      logger.info("Error while processing filter query {} {}: ", input, ex.getMessage(), ex);
+      return Optional.of(Map.of());
+    }
 
-      if (entry.getKey().equals("orig-date-facet")) {
-        String origDateFilterQuery = getFilterQueryForOrigDate((Map) entry.getValue());
-        if (!StringUtils.isBlank(origDateFilterQuery)) {
-          filterQueries.put(origDateFilterQuery, StatField.getTagNameForField(StatField.ORIG_DATE_FROM.getValue()));
-        }
+    final Map<String, String> filterQueries = new TreeMap<>();
+    for (Entry<String, Filter> entry : filters.entrySet()) {
+      final String field = entry.getKey();
+      if (entry.getValue() == null || !filterFields.contains(ORIG_DATE_FACET.equals(field) ? StatField.ORIG_DATE_FROM.getValue() : field)) {
         continue;
       }
 
-      String facetField = entry.getKey();
-      String filterQuery = null;
-      String tag = null;
-      boolean includeMissing = false;
-
-      if (entry.getValue() instanceof String stringValue) {
-        if (StringUtils.isNotEmpty(stringValue)) {
-          filterQuery = String.format("%s:\"%s\"", entry.getKey(), stringValue);
+      if (ORIG_DATE_FACET.equals(field)) {
+        if (entry.getValue() instanceof Filter.Range range && range.isBounded()) {
+          filterQueries.put(ORIG_DATE_LOCAL_PARAMS + getFilterQueryForOrigDate(range), StatField.getTagNameForField(StatField.ORIG_DATE_FROM.getValue()));
         }
-      } else if (entry.getValue() instanceof Boolean boolValue) {
-        filterQuery = String.format("%s:%s", entry.getKey(), boolValue);
+        continue;
       }
 
-      if (entry.getValue() instanceof Map) {
-        Map<String, Object> rangeFilter = (Map<String, Object>) entry.getValue();
-        if (rangeFilter.get("from") instanceof Number from && rangeFilter.get("to") instanceof Number to) {
-          filterQuery = String.format("%s:[%s TO %s]", facetField, from, to);
-          tag = entry.getKey();
-        }
-        if (rangeFilter.get(MISSING) instanceof Boolean) {
-          includeMissing = (boolean) rangeFilter.get(MISSING);
-        }
-      } else if (entry.getValue() instanceof @SuppressWarnings({"rawtypes"})List listValue) {
-        if (listValue.isEmpty()) {
-          continue;
-        }
-        // Everything else is ignored
-        if (listValue.get(0) instanceof String || listValue.get(0) instanceof Boolean) {
-          if (listValue.contains(QueryResponse2ResponseEntityConverter.FIELD_NAME_MISSING)) {
-            listValue.remove(QueryResponse2ResponseEntityConverter.FIELD_NAME_MISSING);
-            includeMissing = true;
-          }
-
-          if (!listValue.isEmpty()) {
-            filterQuery = getMultiValueFilterQuery(entry);
+      switch (entry.getValue()) {
+        case Filter.Term term -> {
+          if (StringUtils.isNotEmpty(term.value())) {
+            filterQueries.put(String.format("%s:\"%s\"", field, term.value()), null);
           }
-          tag = entry.getKey();
         }
-      }
-      if (!includeMissing && StringUtils.isBlank(filterQuery)) {
-        continue;
-      }
-
-      String finalFilterQuery;
-      if (includeMissing) {
-        if (StringUtils.isBlank(filterQuery)) {
-          finalFilterQuery = String.format("-%s:[* TO *]", facetField);
-        } else {
-          finalFilterQuery = String.format("(*:* NOT %s:*) OR (%s)", facetField, filterQuery);
+        case Filter.Flag flag -> filterQueries.put(String.format("%s:%s", field, flag.value()), null);
+        case Filter.Terms terms -> addFilterQuery(filterQueries, field, terms.isEmpty() ? null : getMultiValueFilterQuery(field, terms), field, terms.missing(), "");
+        case Filter.Range range -> {
+          final String filterQuery = range.isBounded() ? String.format("%s:[%s TO %s]", field, range.from(), range.to()) : null;
+          addFilterQuery(filterQueries, field, filterQuery, filterQuery == null ? null : field, range.missing(), filterQuery == null ? "" : RANGE_LOCAL_PARAMS);
         }
-      } else {
-        finalFilterQuery = filterQuery;
       }
-      filterQueries.put(finalFilterQuery, tag);
     }
-    return filterQueries.isEmpty() ? null : filterQueries;
+    return filterQueries.isEmpty() ? Optional.empty() : Optional.of(Collections.unmodifiableMap(filterQueries));
   }
 
-  private static String getFilterQueryForOrigDate(Map<String, Object> origDateFilter) {
-    Integer from = (Integer) origDateFilter.get("from");
-    Integer to = (Integer) origDateFilter.get("to");
-    if (from == null || to == null) {
-      return null;
+  /* if missing values are included, documents without a value for the field are matched as well */
+  private static void addFilterQuery(final Map<String, String> filterQueries, final String field, final String filterQuery, final String tag,
+      final boolean includeMissing, final String localParams) {
+    if (!includeMissing && StringUtils.isBlank(filterQuery)) {
+      return;
     }
 
-    Boolean exact = (Boolean) origDateFilter.get("exact");
-    exact = exact != null && exact;
-    Boolean includeMissing = (Boolean) origDateFilter.get(MISSING);
-    includeMissing = includeMissing != null && includeMissing;
+    String finalFilterQuery;
+    if (includeMissing) {
+      if (StringUtils.isBlank(filterQuery)) {
+        finalFilterQuery = String.format("-%s:[* TO *]", field);
+      } else {
+        finalFilterQuery = String.format("(*:* NOT %s:*) OR (%s)", field, filterQuery);
+      }
+    } else {
+      finalFilterQuery = filterQuery;
+    }
+    filterQueries.put(localParams + finalFilterQuery, tag);
+  }
+
+  private static String getFilterQueryForOrigDate(final Filter.Range origDateFilter) {
+    final Number from = origDateFilter.from();
+    final Number to = origDateFilter.to();
 
     StringBuilder sb = new StringBuilder();
-    if (exact) {
+    if (origDateFilter.exact()) {
       sb.append(String.format("(%s:[%s TO *]", StatField.ORIG_DATE_FROM.getValue(), from));
       sb.append(" AND ");
       sb.append(String.format("%s:[* TO %s])", StatField.ORIG_DATE_TO.getValue(), to));
-      if (includeMissing) {
+      if (origDateFilter.missing()) {
         sb.append(" OR ");
         sb.append(String.format("((*:* NOT %s:*) AND (*:* NOT %s:*))", StatField.ORIG_DATE_FROM.getValue(), StatField.ORIG_DATE_TO.getValue()));
       }
@@ -177,7 +175,7 @@ public class StringToFilterQueryConverter {
       sb.append(String.format("(%s:[%s TO *] OR (*:* NOT %s:*))", StatField.ORIG_DATE_TO.getValue(), from, StatField.ORIG_DATE_TO.getValue()));
       sb.append(" AND ");
       sb.append(String.format("(%s:[* TO %s] OR (*:* NOT %s:*))", StatField.ORIG_DATE_FROM.getValue(), to, StatField.ORIG_DATE_FROM.getValue()));
-      if (!includeMissing) {
+      if (!origDateFilter.missing()) {
         sb.append(" AND ");
         sb.append(String.format("(%s:[* TO *] OR %s:[* TO *])", StatField.ORIG_DATE_FROM.getValue(), StatField.ORIG_DATE_TO.getValue()));
       }
@@ -185,25 +183,13 @@ public class StringToFilterQueryConverter {
     return sb.toString();
   }
 
-  private String getMultiValueFilterQuery(Entry<String, Object> entry) {
-    @SuppressWarnings({"rawtypes"}) List listValue = (List) entry.getValue();
-    StringBuilder builder = new StringBuilder();
-    builder.append(entry.getKey());
-    builder.append(":("); // mood?
-
-    Iterator<Object> valueIterator = listValue.iterator();
-    while (valueIterator.hasNext()) {
-      Object value = valueIterator.next();
-      if(value instanceof String) {
-        builder.append(String.format("\"%s\"", value));
-      } else if(value instanceof Boolean) {
-        builder.append(value);
-      }
-      if (valueIterator.hasNext()) {
-        builder.append(" OR ");
-      }
-    }
-    builder.append(")");
-    return builder.toString();
+  private static String getMultiValueFilterQuery(final String field, final Filter.Terms terms) {
+    /* sorted and without duplicates, so the order of the given values doesn't matter */
+    final Set<String> values = new TreeSet<>();
+    terms.terms().forEach(term -> values.add(String.format("\"%s\"", term)));
+    terms.flags().forEach(flag -> values.add(flag.toString()));
+    return field + ":(" + String.join(" OR ", values) + ")";
   }
+
+  private record CacheKey(String input, Map<String, Object> defaultFilter) {}
 }
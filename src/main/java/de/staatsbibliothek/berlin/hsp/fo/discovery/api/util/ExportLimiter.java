@@ -0,0 +1,52 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.api.util;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ExportConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limits the number of exports running at the same time, as each export holds a thread and a Solr cursor for its whole
+ * duration. The limit is shared by the exports of all entities
+ */
+@Component
+public class ExportLimiter {
+
+  private final int maxConcurrent;
+  private final Semaphore permits;
+
+  @Autowired
+  public ExportLimiter(final ExportConfig exportConfig) {
+    this.maxConcurrent = exportConfig.getMaxConcurrent();
+    this.permits = new Semaphore(maxConcurrent);
+  }
+
+  /**
+   * Acquires a permit for an export
+   *
+   * @return the action releasing the permit, it may be run more than once, only the first run releases the permit
+   * @throws RuntimeException of type {@code TOO_MANY_REQUESTS} if the maximum number of exports is running
+   */
+  public Runnable acquire() {
+    if (!permits.tryAcquire()) {
+      throw ExceptionFactory.getException(ExceptionType.TOO_MANY_REQUESTS, String.format("At most %d exports may run at the same time, please retry later.", maxConcurrent));
+    }
+    final AtomicBoolean released = new AtomicBoolean();
+    return () -> {
+      if (released.compareAndSet(false, true)) {
+        permits.release();
+      }
+    };
+  }
+
+  /**
+   * @return the number of exports that may be started currently
+   */
+  public int getAvailablePermits() {
+    return permits.availablePermits();
+  }
+}
@@ -0,0 +1,17 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.batch")
+@Data
+@NoArgsConstructor
+public class BatchConfig {
+  /* maximum number of ids resolved by a single batch request, all of them are fetched by a single solr request */
+  private int maxSize = 100;
+}
@@ -0,0 +1,21 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.deadline")
+@Data
+@NoArgsConstructor
+public class DeadlineConfig {
+  /* if enabled, each search gets a time budget, the time left is passed to solr as timeAllowed */
+  private boolean enabled = true;
+  /* the time budget of a search, shared by all of its solr requests */
+  private Duration budget = Duration.ofSeconds(15);
+}
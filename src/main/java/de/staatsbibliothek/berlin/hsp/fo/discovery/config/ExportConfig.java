@@ -0,0 +1,25 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.export")
+@Data
+@NoArgsConstructor
+public class ExportConfig {
+  /* number of documents fetched from solr per page, if the client doesn't request another page size */
+  private int pageSize = 1000;
+  /* upper limit of the page size a client may request, bounds the memory used by a single export */
+  private int maxPageSize = 5000;
+  /* time an export may take, it replaces the default timeout of asynchronous requests */
+  private Duration timeout = Duration.ofMinutes(30);
+  /* maximum number of exports running at the same time, further ones are rejected until a running export completes */
+  private int maxConcurrent = 4;
+}
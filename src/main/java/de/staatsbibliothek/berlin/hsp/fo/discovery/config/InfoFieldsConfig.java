@@ -0,0 +1,19 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.info-fields")
+@Data
+@NoArgsConstructor
+public class InfoFieldsConfig {
+  /* age of the cached schema, field type and enum information after which it is reloaded in the background */
+  private Duration refreshInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,19 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.info-stats")
+@Data
+@NoArgsConstructor
+public class InfoStatsConfig {
+  /* age of the cached stats after which they are refreshed in the background, the cached stats are served meanwhile */
+  private Duration refreshInterval = Duration.ofMinutes(5);
+}
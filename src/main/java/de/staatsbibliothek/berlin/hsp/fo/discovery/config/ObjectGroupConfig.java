@@ -0,0 +1,26 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.object-group")
+@Data
+@NoArgsConstructor
+public class ObjectGroupConfig {
+  /* determines how the members (KOD, descriptions and digitizeds) of an object group are queried */
+  private SearchMode searchMode = SearchMode.TWO_PHASE;
+  /* maximum number of members returned per object group, further members are available via /hspobjects/{id}/members */
+  private int memberLimit = 100;
+
+  public enum SearchMode {
+    /* a collapsed query for the group ids, followed by a grouped query completing each group */
+    TWO_PHASE,
+    /* a single collapsed query, expanding each group by its remaining members */
+    COLLAPSE_EXPAND
+  }
+}
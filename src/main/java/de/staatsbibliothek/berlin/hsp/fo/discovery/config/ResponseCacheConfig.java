@@ -0,0 +1,23 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.response-cache")
+@Data
+@NoArgsConstructor
+public class ResponseCacheConfig {
+  /* if enabled, the mapped results of search requests are cached until the index version changes */
+  private boolean enabled = true;
+  /* maximum total weight of the cached results, a result weighs the number of its items plus one */
+  private long maxWeight = 10000;
+  /* interval of polling the index version, determines how long outdated results may be served after an index update */
+  private Duration versionPollInterval = Duration.ofSeconds(30);
+}
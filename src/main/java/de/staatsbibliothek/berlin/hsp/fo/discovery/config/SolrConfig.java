@@ -28,6 +28,9 @@ import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Config class to map solr related properties from the profile file
  * 
@@ -43,10 +46,73 @@ public class SolrConfig {
 
   private String host = "";
 
+  /* if set, requests are balanced over these hosts, each serving a replica of the core, instead of using host only */
+  private List<String> hosts = new ArrayList<>();
+
+  /* milliseconds between probing the hosts that failed, until they respond again */
+  private int aliveCheckInterval = 30000;
+
   private int timeout;
 
+  /* milliseconds to wait for establishing a connection */
+  private int connectionTimeout = 10000;
+
+  /* milliseconds an idle connection is kept open */
+  private int idleTimeout = 60000;
+
+  /* every HTTP/2 connection multiplexes many concurrent requests, so few connections are needed */
+  private int maxConnectionsPerHost = 4;
+
+  /* if enabled, solr is asked to compress its responses by gzip */
+  private boolean compression = true;
+
+  private ResponseFormat responseFormat = ResponseFormat.JAVABIN;
+
+  /* if enabled, concurrent identical queries share a single request */
+  private boolean coalescing = true;
+
+  private Hedging hedging = new Hedging();
+
+  /**
+   * The format of solr's responses
+   */
+  public enum ResponseFormat {
+    /* solr's compact binary format */
+    JAVABIN,
+    /* better readable, e.g. when tracing requests, but more expensive to transfer and to parse */
+    XML
+  }
+
   public String getUrl() {
     return this.host + "/solr";
   }
 
+  /**
+   * Duplicates slow queries to a second replica, the first response is used
+   */
+  @Data
+  public static class Hedging {
+
+    private boolean enabled = false;
+
+    /* a query is hedged once it takes longer than this percentile of the recent query latencies */
+    private double percentile = 0.95;
+
+    /* milliseconds to wait at least before hedging, also used until enough latencies are recorded */
+    private int minDelay = 50;
+
+    /* maximum ratio of hedges to queries */
+    private double budget = 0.05;
+  }
+
+  /**
+   * @return the urls of the core on each of the configured hosts
+   */
+  public List<String> getCoreUrls() {
+    final List<String> coreHosts = hosts.isEmpty() ? List.of(host) : hosts;
+    return coreHosts.stream()
+        .map(coreHost -> coreHost + "/solr/" + core)
+        .toList();
+  }
+
 }
@@ -0,0 +1,19 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@AllArgsConstructor
+@Configuration
+@ConfigurationProperties(prefix = "hsp.spell-correction")
+@Data
+@NoArgsConstructor
+public class SpellCorrectionConfig {
+  /* if enabled, the spell corrected search for a phrase whose correction is already known is issued concurrently to the original search */
+  private boolean speculative = false;
+  /* maximum number of phrases whose spell correction is remembered */
+  private int cacheSize = 1000;
+}
@@ -69,4 +69,8 @@ public class MetaData implements Serializable {
 
   @JsonInclude(Include.NON_EMPTY)
   private Map<String, Stats> stats;
+
+  /* true if solr stopped searching because the time allowed was used up, so the result may be incomplete */
+  @JsonInclude(Include.NON_DEFAULT)
+  private boolean partialResults;
 }
\ No newline at end of file
@@ -0,0 +1,11 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.dto;
+
+import java.util.Date;
+
+/**
+ * A TEI document as stored in the index
+ *
+ * @param content      the TEI XML, {@code null} if it wasn't requested
+ * @param lastModified the point in time the document was modified last, {@code null} if unknown or not requested
+ */
+public record TeiDocument(String content, Date lastModified) {}
@@ -105,6 +105,14 @@ public class CustomizedResponseEntityExceptionHandler {
     return new ResponseEntity<>(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
   }
 
+  @ExceptionHandler({
+      TooManyRequestsException.class
+  })
+  public final ResponseEntity<String> handleTooManyRequestsException(final Exception ex) {
+    log.warn("Request rejected ", ex);
+    return new ResponseEntity<>(ex.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+  }
+
   @ExceptionHandler({
       Exception.class
   })
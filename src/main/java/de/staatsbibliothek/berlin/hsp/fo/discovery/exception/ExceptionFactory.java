@@ -76,6 +76,12 @@ public class ExceptionFactory {
     }
   }
 
+  public static class TooManyRequestsException extends RuntimeException {
+    public TooManyRequestsException(final String message) {
+      super(message);
+    }
+  }
+
   /**
    * Returns a runtime exception based on exceptionType and exceptionMessage
    * 
@@ -92,6 +98,7 @@ public class ExceptionFactory {
       case NOT_FOUND -> new NotFoundException(exMessage);
       case NO_UNIQUE_RESULT -> new NoUniqueResultException(exMessage);
       case SOLR_REQUEST -> new SolrNotReachableException(exMessage);
+      case TOO_MANY_REQUESTS -> new TooManyRequestsException(exMessage);
     };
   }
 }
@@ -36,4 +36,5 @@ public enum ExceptionType {
   NOT_FOUND,
   NO_UNIQUE_RESULT,
   SOLR_REQUEST,
+  TOO_MANY_REQUESTS,
 }
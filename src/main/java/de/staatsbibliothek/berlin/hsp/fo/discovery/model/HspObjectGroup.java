@@ -51,6 +51,9 @@ public class HspObjectGroup {
 
   private List<HspDigitized> hspDigitizeds;
 
+  /* total number of the group's members (descriptions and digitizeds), which may exceed the number of members contained */
+  private long memberCount;
+
   @JsonIgnore
   public String getGroupId() {
     return hspObject != null ? hspObject.getId() : null;
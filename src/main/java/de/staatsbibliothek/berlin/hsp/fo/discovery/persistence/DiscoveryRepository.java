@@ -29,6 +29,8 @@ import org.apache.solr.client.solrj.response.SolrResponseBase;
 import org.apache.solr.client.solrj.response.schema.SchemaResponse;
 import org.apache.solr.common.params.SolrParams;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 
  * @author Glenn Fischer {@literal <gfischer@ub.uni-leipzig.de>}
@@ -37,9 +39,13 @@ import org.apache.solr.common.params.SolrParams;
 public interface DiscoveryRepository {
   QueryResponse findByQuery(final SolrParams solrParams);
 
+  CompletableFuture<QueryResponse> findByQueryAsync(final SolrParams solrParams);
+
   SchemaResponse.FieldsResponse getFieldInformation();
 
   SchemaResponse.FieldTypesResponse getFieldTypeInformation();
 
   SolrResponseBase getEnumValues();
+
+  long getIndexVersion();
 }
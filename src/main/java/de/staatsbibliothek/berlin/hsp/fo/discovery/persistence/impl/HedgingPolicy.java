@@ -0,0 +1,103 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.SolrConfig;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides when and whether a query is hedged, i.e. duplicated to a second replica. A query is hedged once it takes
+ * longer than the configured percentile of the recently recorded latencies. Every query earns a fraction of a hedge
+ * according to the configured budget, a hedge is sent only if a whole one is earned, so the extra load is bounded.
+ */
+class HedgingPolicy {
+
+  private static final int SAMPLE_SIZE = 1024;
+  /* the delay is recomputed after this number of recorded latencies */
+  private static final int RECOMPUTE_INTERVAL = 64;
+  /* caps the hedges earned while no query was slow, so a burst of slow queries doesn't multiply the load */
+  private static final double MAX_CREDITS = 10;
+
+  private final boolean enabled;
+  private final double percentile;
+  private final long minDelayNanos;
+  private final double budget;
+
+  /* the state is guarded by this, its sections are short and don't block */
+  private final long[] latencies = new long[SAMPLE_SIZE];
+  private int sampleCount;
+  private int nextSample;
+  private int samplesSinceRecompute;
+  private long delayNanos;
+  private double credits;
+
+  private final LongAdder fired = new LongAdder();
+  private final LongAdder won = new LongAdder();
+
+  HedgingPolicy(final SolrConfig.Hedging hedging) {
+    this.enabled = hedging.isEnabled();
+    this.percentile = hedging.getPercentile();
+    this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedging.getMinDelay());
+    this.budget = hedging.getBudget();
+    this.delayNanos = minDelayNanos;
+  }
+
+  boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * @return the nanoseconds to wait for the primary response before hedging
+   */
+  synchronized long getDelayNanos() {
+    return delayNanos;
+  }
+
+  /**
+   * Earns the fraction of a hedge a query is entitled to
+   */
+  synchronized void onQuery() {
+    credits = Math.min(MAX_CREDITS, credits + budget);
+  }
+
+  /**
+   * @return {@code true} if a hedge may be sent, it's counted as fired then
+   */
+  synchronized boolean tryHedge() {
+    if (credits < 1) {
+      return false;
+    }
+    credits -= 1;
+    fired.increment();
+    return true;
+  }
+
+  void onHedgeWon() {
+    won.increment();
+  }
+
+  /**
+   * Records the latency of a query, i.e. the nanoseconds until its first response arrived
+   */
+  synchronized void record(final long latencyNanos) {
+    latencies[nextSample] = latencyNanos;
+    nextSample = (nextSample + 1) % SAMPLE_SIZE;
+    sampleCount = Math.min(SAMPLE_SIZE, sampleCount + 1);
+    if (++samplesSinceRecompute >= RECOMPUTE_INTERVAL) {
+      samplesSinceRecompute = 0;
+      final long[] sorted = Arrays.copyOf(latencies, sampleCount);
+      Arrays.sort(sorted);
+      final int index = Math.min(sampleCount - 1, (int) Math.ceil(percentile * sampleCount) - 1);
+      delayNanos = Math.max(minDelayNanos, sorted[Math.max(0, index)]);
+    }
+  }
+
+  long getFired() {
+    return fired.sum();
+  }
+
+  long getWon() {
+    return won.sum();
+  }
+}
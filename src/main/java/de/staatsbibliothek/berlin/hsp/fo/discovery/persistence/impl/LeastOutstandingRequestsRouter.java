@@ -0,0 +1,82 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Orders the urls of the Solr replicas by the number of their outstanding requests, so a request is sent to the least
+ * busy replica first. Slow replicas accumulate outstanding requests and therefore receive fewer new ones. Replicas
+ * with the same number of outstanding requests are rotated, so they are used evenly.
+ */
+class LeastOutstandingRequestsRouter {
+
+  private final Map<String, AtomicInteger> outstanding = new LinkedHashMap<>();
+  private final List<String> urls;
+  private final AtomicInteger rotation = new AtomicInteger();
+
+  /**
+   * @param urls the urls of the replicas, must not be empty
+   */
+  LeastOutstandingRequestsRouter(final List<String> urls) {
+    this.urls = List.copyOf(urls);
+    this.urls.forEach(url -> outstanding.put(url, new AtomicInteger()));
+  }
+
+  /**
+   * @return all urls, starting with the one having the fewest outstanding requests
+   */
+  List<String> order() {
+    final int offset = Math.floorMod(rotation.getAndIncrement(), urls.size());
+    /* the counts are copied, so they don't change while sorting */
+    final List<Map.Entry<String, Integer>> counts = new ArrayList<>(urls.size());
+    for (int i = 0; i < urls.size(); i++) {
+      final String url = urls.get((offset + i) % urls.size());
+      counts.add(Map.entry(url, outstanding.get(url).get()));
+    }
+    /* the sort is stable, so the rotation is kept for equal counts */
+    counts.sort(Map.Entry.comparingByValue(Comparator.naturalOrder()));
+    return counts.stream()
+        .map(Map.Entry::getKey)
+        .toList();
+  }
+
+  /**
+   * Marks a request to the given {@code url} as outstanding
+   */
+  void begin(final String url) {
+    outstanding.get(url).incrementAndGet();
+  }
+
+  /**
+   * Marks a request to the given {@code url} as completed
+   */
+  void end(final String url) {
+    outstanding.get(url).decrementAndGet();
+  }
+
+  /**
+   * @return the url of the replica the given {@code requestUrl} is addressed to, {@code null} if it doesn't address
+   * any of them
+   */
+  String findUrl(final String requestUrl) {
+    for (String url : urls) {
+      /* the url has to end at a path or query boundary, so a replica's url doesn't match the one of a longer named core */
+      if (requestUrl.startsWith(url) && (requestUrl.length() == url.length() || url.endsWith("/") || "/?".indexOf(requestUrl.charAt(url.length())) >= 0)) {
+        return url;
+      }
+    }
+    return null;
+  }
+
+  int getOutstanding(final String url) {
+    return outstanding.get(url).get();
+  }
+
+  List<String> getUrls() {
+    return urls;
+  }
+}
@@ -0,0 +1,102 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FutureHelper;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with the same key, so only the first one is performed and the others share its result.
+ * Once the call is completed, the next one with that key is performed again, so in contrast to a cache, no outdated
+ * result is ever returned. Each caller gets a future of its own, cancelling it doesn't affect the other callers. The
+ * call is cancelled once all of its callers cancelled their futures.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the result
+ */
+class SingleFlight<K, V> {
+
+  private final ConcurrentHashMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+  private final LongAdder coalesced = new LongAdder();
+
+  /**
+   * Performs the call supplied by {@code call}, unless a call with the same {@code key} is in flight
+   *
+   * @param key  identifies calls with the same result
+   * @param call performs the call, it's invoked on the calling thread
+   * @return a future of the call's result
+   */
+  CompletableFuture<V> execute(final K key, final Supplier<CompletableFuture<V>> call) {
+    final Flight<V> created = new Flight<>();
+    final Flight<V> flight = flights.compute(key, (k, current) -> {
+      final Flight<V> joined = current != null ? current : created;
+      joined.callers++;
+      return joined;
+    });
+
+    if (flight == created) {
+      start(key, flight, call);
+    } else {
+      coalesced.increment();
+    }
+    return FutureHelper.onCancellation(flight.shared.copy(), () -> release(key, flight));
+  }
+
+  private void start(final K key, final Flight<V> flight, final Supplier<CompletableFuture<V>> call) {
+    CompletableFuture<V> future;
+    try {
+      future = call.get();
+    } catch (RuntimeException ex) {
+      future = CompletableFuture.failedFuture(ex);
+    }
+    flight.call = future;
+    future.whenComplete((value, ex) -> {
+      /* removed before completing, so callers reacting on the result don't join the finished flight */
+      flights.remove(key, flight);
+      if (ex != null) {
+        flight.shared.completeExceptionally(ex);
+      } else {
+        flight.shared.complete(value);
+      }
+    });
+    /* all callers may have cancelled while the call was started */
+    if (flight.abandoned) {
+      future.cancel(true);
+    }
+  }
+
+  private void release(final K key, final Flight<V> flight) {
+    flights.computeIfPresent(key, (k, current) -> {
+      if (current == flight && --flight.callers == 0) {
+        flight.abandoned = true;
+        return null;
+      }
+      return current;
+    });
+    final CompletableFuture<V> call = flight.call;
+    if (flight.abandoned && call != null) {
+      call.cancel(true);
+    }
+  }
+
+  /**
+   * @return the number of calls that joined a call in flight instead of being performed
+   */
+  long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /**
+   * A call in flight and the number of its callers that didn't cancel, the latter is guarded by the map's lock of the
+   * call's key
+   */
+  private static final class Flight<V> {
+
+    private final CompletableFuture<V> shared = new CompletableFuture<>();
+    private int callers;
+    private volatile boolean abandoned;
+    private volatile CompletableFuture<V> call;
+  }
+}
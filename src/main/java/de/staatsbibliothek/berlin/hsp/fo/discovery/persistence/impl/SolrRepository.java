@@ -28,52 +28,129 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.config.SolrConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FutureHelper;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.SolrParamsHelper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.client.solrj.impl.BaseHttpSolrClient.RemoteSolrException;
 import org.apache.solr.client.solrj.impl.Http2SolrClient;
+import org.apache.solr.client.solrj.impl.HttpListenerFactory;
+import org.apache.solr.client.solrj.impl.LBHttp2SolrClient;
+import org.apache.solr.client.solrj.impl.LBSolrClient;
+import org.apache.solr.client.solrj.impl.XMLResponseParser;
+import org.apache.solr.client.solrj.request.GenericSolrRequest;
+import org.apache.solr.client.solrj.request.QueryRequest;
 import org.apache.solr.client.solrj.request.schema.SchemaRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.client.solrj.response.SolrResponseBase;
 import org.apache.solr.client.solrj.response.schema.SchemaResponse;
+import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.eclipse.jetty.client.api.Request;
+import org.eclipse.jetty.client.api.Result;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 @Repository
 @Slf4j
-public class SolrRepository implements DiscoveryRepository {
+public class SolrRepository implements DiscoveryRepository, MeterBinder {
 
   private static final Logger logger = LoggerFactory.getLogger(SolrRepository.class);
-  private final SolrClient solrClient;
-  private final String coreName;
+  private final Http2SolrClient httpClient;
+  private final LBHttp2SolrClient lbClient;
+  private final LeastOutstandingRequestsRouter router;
+  private final HedgingPolicy hedgingPolicy;
+  /* routes all requests to the replicas of the core */
+  private final ReplicaRoutingClient solrClient = new ReplicaRoutingClient();
+  private final int maxConnectionsPerHost;
+  private final boolean compression;
+  /* if enabled, blocking queries wait for the asynchronous request, see findByQuery */
+  private final boolean virtualThreads;
+  private final boolean coalescing;
+  /* the queries in flight, keyed by their canonical params */
+  private final SingleFlight<String, QueryResponse> queries = new SingleFlight<>();
 
-  public SolrRepository(final SolrConfig solrConfig) {
-    this.solrClient = new Http2SolrClient.Builder(solrConfig.getUrl())
+  private final LongAdder queuedRequests = new LongAdder();
+  private final LongAdder activeRequests = new LongAdder();
+  private final LongAdder succeededRequests = new LongAdder();
+  private final LongAdder failedRequests = new LongAdder();
+
+  public SolrRepository(final SolrConfig solrConfig, @Value("${spring.threads.virtual.enabled:false}") final boolean virtualThreads) {
+    /* no base url, because the load balancing client sets the replica's url on each request */
+    final Http2SolrClient.Builder builder = new Http2SolrClient.Builder()
         .withRequestTimeout(solrConfig.getTimeout(), TimeUnit.MILLISECONDS)
+        .withConnectionTimeout(solrConfig.getConnectionTimeout(), TimeUnit.MILLISECONDS)
+        .withIdleTimeout(solrConfig.getIdleTimeout(), TimeUnit.MILLISECONDS)
+        .withMaxConnectionsPerHost(solrConfig.getMaxConnectionsPerHost());
+    if (solrConfig.getResponseFormat() == SolrConfig.ResponseFormat.XML) {
+      builder.withResponseParser(new XMLResponseParser());
+    }
+    this.httpClient = builder.build();
+    this.httpClient.addListenerFactory(RequestTracker::new);
+    this.router = new LeastOutstandingRequestsRouter(solrConfig.getCoreUrls());
+    this.lbClient = new LBHttp2SolrClient.Builder(httpClient, router.getUrls().toArray(String[]::new))
+        .setAliveCheckInterval(solrConfig.getAliveCheckInterval(), TimeUnit.MILLISECONDS)
         .build();
-    this.coreName = solrConfig.getCore();
+    this.hedgingPolicy = new HedgingPolicy(solrConfig.getHedging());
+    this.maxConnectionsPerHost = solrConfig.getMaxConnectionsPerHost();
+    this.compression = solrConfig.isCompression();
+    this.virtualThreads = virtualThreads;
+    this.coalescing = solrConfig.isCoalescing();
   }
 
   /**
-   * Queries all documents for the given term
+   * Queries all documents for the given term. If an identical query is in flight, its response is awaited instead
    *
    * @param solrParams the solr params to specify the query
    * @return the solr response
    */
   @Override
   public QueryResponse findByQuery(final SolrParams solrParams) {
+    final boolean asynchronous = virtualThreads || isHedging();
+    if (coalescing) {
+      return await(queries.execute(SolrParamsHelper.toCanonicalString(solrParams), () -> asynchronous
+          ? queryAsync(solrParams)
+          : supplyQuery(solrParams)));
+    }
+    return asynchronous ? await(queryAsync(solrParams)) : query(solrParams);
+  }
+
+  /* the blocking query is performed by the calling thread, the callers joining it wait for its completion */
+  private CompletableFuture<QueryResponse> supplyQuery(final SolrParams solrParams) {
+    try {
+      return CompletableFuture.completedFuture(query(solrParams));
+    } catch (RuntimeException ex) {
+      return CompletableFuture.failedFuture(ex);
+    }
+  }
+
+  private QueryResponse query(final SolrParams solrParams) {
     try {
       if (logger.isDebugEnabled()) {
         logger.debug("Query Solr with the following params: {}", solrParams);
       }
-      final QueryResponse queryResponse = this.solrClient.query(coreName, solrParams, SolrRequest.METHOD.POST);
+      final QueryResponse queryResponse = decorate(new QueryRequest(solrParams, SolrRequest.METHOD.POST)).process(solrClient);
 
       if (queryResponse.getException() != null) {
         throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, queryResponse.getException()
@@ -85,6 +162,116 @@ public class SolrRepository implements DiscoveryRepository {
     }
   }
 
+  /**
+   * The blocking request of the solr client waits on a monitor of Jetty's response listener, which pins a virtual
+   * thread to its carrier thread. Waiting for the asynchronous request parks the virtual thread instead. Hedged queries
+   * are asynchronous anyway, callers joining a coalesced query wait for its future as well.
+   */
+  private static QueryResponse await(final CompletableFuture<QueryResponse> query) {
+    try {
+      return query.join();
+    } catch (CompletionException ex) {
+      if (ex.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, ex.getLocalizedMessage());
+    }
+  }
+
+  /**
+   * Queries all documents for the given term without blocking the calling thread while Solr is processing the request
+   *
+   * @param solrParams the solr params to specify the query
+   * @return a future completed by the solr response, or exceptionally by a {@code SOLR_REQUEST} exception. Cancelling
+   * it aborts the request, unless an identical query shares it
+   */
+  @Override
+  public CompletableFuture<QueryResponse> findByQueryAsync(final SolrParams solrParams) {
+    return coalescing
+        ? queries.execute(SolrParamsHelper.toCanonicalString(solrParams), () -> queryAsync(solrParams))
+        : queryAsync(solrParams);
+  }
+
+  private CompletableFuture<QueryResponse> queryAsync(final SolrParams solrParams) {
+    if (logger.isDebugEnabled()) {
+      logger.debug("Query Solr asynchronously with the following params: {}", solrParams);
+    }
+    final CompletableFuture<NamedList<Object>> request = isHedging()
+        ? hedgedQuery(solrParams)
+        : solrClient.requestAsync(decorate(new QueryRequest(solrParams, SolrRequest.METHOD.POST)));
+    final CompletableFuture<QueryResponse> response = request.handle((namedList, ex) -> {
+      if (ex != null) {
+        throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, FutureHelper.unwrap(ex).getLocalizedMessage());
+      }
+      final QueryResponse queryResponse = new QueryResponse(namedList, solrClient);
+      if (queryResponse.getException() != null) {
+        throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, queryResponse.getException()
+            .getMessage());
+      }
+      return queryResponse;
+    });
+    return FutureHelper.cancelling(response, request);
+  }
+
+  private boolean isHedging() {
+    return hedgingPolicy.isEnabled() && router.getUrls().size() > 1;
+  }
+
+  /**
+   * Sends the query to the least busy replica. If it doesn't respond within the hedging delay and the hedging budget
+   * allows for it, the query is duplicated to the next replica. The first successful response is used, the other
+   * request is cancelled. The query fails only once every request sent has failed.
+   */
+  private CompletableFuture<NamedList<Object>> hedgedQuery(final SolrParams solrParams) {
+    final List<String> urls = router.order();
+    /* the hedge prefers the second replica, the first one is its last resort */
+    final List<String> hedgeUrls = new ArrayList<>(urls.subList(1, urls.size()));
+    hedgeUrls.add(urls.get(0));
+
+    final CompletableFuture<NamedList<Object>> result = new CompletableFuture<>();
+    final long start = System.nanoTime();
+    /* the primary request and the hedge, the latter counts until it's known whether it's sent */
+    final AtomicInteger pending = new AtomicInteger(2);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Consumer<Throwable> fail = ex -> {
+      if (ex != null) {
+        failure.compareAndSet(null, ex);
+      }
+      if (pending.decrementAndGet() == 0) {
+        result.completeExceptionally(failure.get());
+      }
+    };
+    hedgingPolicy.onQuery();
+    /* every request needs its own instance, because the load balancing client sets the replica's url on it */
+    final CompletableFuture<LBSolrClient.Rsp> primary = solrClient.send(decorate(new QueryRequest(solrParams, SolrRequest.METHOD.POST)), urls);
+    primary.whenComplete((rsp, ex) -> {
+      if (ex != null) {
+        fail.accept(ex);
+      } else if (result.complete(rsp.getResponse())) {
+        hedgingPolicy.record(System.nanoTime() - start);
+      }
+    });
+
+    CompletableFuture.delayedExecutor(hedgingPolicy.getDelayNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+      if (result.isDone() || !hedgingPolicy.tryHedge()) {
+        fail.accept(null);
+        return;
+      }
+      final CompletableFuture<LBSolrClient.Rsp> hedge = solrClient.send(decorate(new QueryRequest(solrParams, SolrRequest.METHOD.POST)), hedgeUrls);
+      hedge.whenComplete((rsp, ex) -> {
+        if (ex != null) {
+          fail.accept(ex);
+        } else if (result.complete(rsp.getResponse())) {
+          hedgingPolicy.onHedgeWon();
+          hedgingPolicy.record(System.nanoTime() - start);
+          primary.cancel(true);
+        }
+      });
+      result.whenComplete((response, ex) -> hedge.cancel(true));
+    });
+    return FutureHelper.cancelling(result, primary);
+  }
+
   /**
    * Queries for all fields
    *
@@ -92,9 +279,9 @@ public class SolrRepository implements DiscoveryRepository {
    */
   @Override
   public SchemaResponse.FieldsResponse getFieldInformation() {
-    final SchemaRequest.Fields fieldsRequest = new SchemaRequest.Fields();
+    final SchemaRequest.Fields fieldsRequest = decorate(new SchemaRequest.Fields());
     try {
-      return fieldsRequest.process(solrClient, coreName);
+      return fieldsRequest.process(solrClient);
 
     } catch (IOException | SolrServerException e) {
       throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, e.getLocalizedMessage());
@@ -108,9 +295,9 @@ public class SolrRepository implements DiscoveryRepository {
    */
   @Override
   public SchemaResponse.FieldTypesResponse getFieldTypeInformation() {
-    final SchemaRequest.FieldTypes typesRequest = new SchemaRequest.FieldTypes();
+    final SchemaRequest.FieldTypes typesRequest = decorate(new SchemaRequest.FieldTypes());
     try {
-      return typesRequest.process(solrClient, coreName);
+      return typesRequest.process(solrClient);
     } catch (IOException | SolrServerException e) {
       throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, e.getLocalizedMessage());
     }
@@ -127,9 +314,173 @@ public class SolrRepository implements DiscoveryRepository {
 
     fileRequest.setFileName("enumsConfig.xml");
     try {
-      return fileRequest.process(solrClient, coreName);
+      return fileRequest.process(solrClient);
     } catch (IOException | SolrServerException e) {
       throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, e.getLocalizedMessage());
     }
   }
-}
\ No newline at end of file
+
+  /**
+   * Queries for the versions of the replicas' indexes and combines them, so the combined version changes whenever the
+   * index of any replica is updated. The replicas are updated one after another, a single replica's version would miss
+   * the updates of the lagging ones. Replicas that don't respond are skipped
+   *
+   * @return the combined index version
+   */
+  @Override
+  public long getIndexVersion() {
+    long combinedVersion = 1;
+    boolean responded = false;
+    for (String url : router.getUrls()) {
+      try {
+        combinedVersion = 31 * combinedVersion + getIndexVersion(url);
+        responded = true;
+      } catch (RuntimeException e) {
+        logger.warn("Failed to query the index version of {}: {}", url, e.getLocalizedMessage());
+      }
+    }
+    if (!responded) {
+      throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, "No replica responded with its index version");
+    }
+    return combinedVersion;
+  }
+
+  /**
+   * Queries for the version of a replica's index, bypassing the load balancing
+   *
+   * @param url the replica's url
+   * @return the index version
+   */
+  long getIndexVersion(final String url) {
+    /* show the index info only, the field and schema info as well as the top terms are expensive to collect */
+    final ModifiableSolrParams params = new ModifiableSolrParams()
+        .set("show", "index")
+        .set("numTerms", 0);
+    final GenericSolrRequest lukeRequest = decorate(new GenericSolrRequest(SolrRequest.METHOD.GET, "/admin/luke", params));
+    lukeRequest.setBasePath(url);
+    try {
+      final NamedList<Object> response = lukeRequest.process(httpClient).getResponse();
+      if (!(response.get("index") instanceof NamedList<?> indexInfo) || !(indexInfo.get("version") instanceof Number version)) {
+        throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, "Index version is missing");
+      }
+      return version.longValue();
+    } catch (RemoteSolrException | IOException | SolrServerException e) {
+      throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, e.getLocalizedMessage());
+    }
+  }
+
+  /* the solr client removes the Accept-Encoding header, but adds the request's headers afterwards. The gzip encoded
+   * response is decoded by Jetty's http client */
+  private <R extends SolrRequest<?>> R decorate(final R request) {
+    if (compression) {
+      request.addHeader("Accept-Encoding", "gzip");
+    }
+    return request;
+  }
+
+  /**
+   * Exposes the number of requests waiting for a connection, the number of requests being processed and the number of
+   * completed requests. Together with the maximum number of connections per host, they allow for sizing the client.
+   * The number of queries that joined an identical one in flight shows the effect of coalescing
+   */
+  @Override
+  public void bindTo(@NonNull final MeterRegistry registry) {
+    Gauge.builder("solr.client.requests.queued", queuedRequests, LongAdder::sum)
+        .register(registry);
+    Gauge.builder("solr.client.requests.active", activeRequests, LongAdder::sum)
+        .register(registry);
+    FunctionCounter.builder("solr.client.requests", succeededRequests, LongAdder::sum)
+        .tags("outcome", "success")
+        .register(registry);
+    FunctionCounter.builder("solr.client.requests", failedRequests, LongAdder::sum)
+        .tags("outcome", "failure")
+        .register(registry);
+    Gauge.builder("solr.client.connections.max", () -> maxConnectionsPerHost)
+        .register(registry);
+    FunctionCounter.builder("solr.client.requests.coalesced", queries, SingleFlight::getCoalesced)
+        .register(registry);
+    FunctionCounter.builder("solr.client.hedges", hedgingPolicy, HedgingPolicy::getFired)
+        .register(registry);
+    FunctionCounter.builder("solr.client.hedges.won", hedgingPolicy, HedgingPolicy::getWon)
+        .register(registry);
+    for (String url : router.getUrls()) {
+      Gauge.builder("solr.client.requests.outstanding", () -> router.getOutstanding(url))
+          .tags("url", url)
+          .register(registry);
+    }
+  }
+
+  /**
+   * Sends each request to the replica with the fewest outstanding requests. If it fails, the load balancing client
+   * retries the request on the next replica and ejects the failing one, it's skipped until a background probe succeeds
+   */
+  private final class ReplicaRoutingClient extends SolrClient {
+
+    /* the outstanding requests are counted per replica by the RequestTracker, as the load balancing client may fail
+       over to another replica than the first one */
+    @Override
+    public NamedList<Object> request(final SolrRequest<?> request, final String collection) throws SolrServerException, IOException {
+      return lbClient.request(new LBSolrClient.Req(request, router.order())).getResponse();
+    }
+
+    CompletableFuture<NamedList<Object>> requestAsync(final SolrRequest<?> request) {
+      final CompletableFuture<LBSolrClient.Rsp> sent = send(request, router.order());
+      return FutureHelper.cancelling(sent.thenApply(LBSolrClient.Rsp::getResponse), sent);
+    }
+
+    /* returns the load balancing client's future, because cancelling it aborts the request */
+    CompletableFuture<LBSolrClient.Rsp> send(final SolrRequest<?> request, final List<String> urls) {
+      return lbClient.requestAsync(new LBSolrClient.Req(request, urls));
+    }
+
+    @Override
+    public void close() {
+      lbClient.close();
+      httpClient.close();
+    }
+  }
+
+  /**
+   * Tracks the state of a single request, a request is queued until a connection is available for sending it.
+   * Each attempt of the load balancing client is a request of its own, so it's counted as outstanding for the replica
+   * it's actually sent to
+   */
+  private class RequestTracker extends HttpListenerFactory.RequestResponseListener {
+
+    private volatile boolean begun;
+    private volatile String replicaUrl;
+
+    @Override
+    public void onQueued(final Request request) {
+      queuedRequests.increment();
+      replicaUrl = router.findUrl(request.getURI().toString());
+      if (replicaUrl != null) {
+        router.begin(replicaUrl);
+      }
+    }
+
+    @Override
+    public void onBegin(final Request request) {
+      begun = true;
+      queuedRequests.decrement();
+      activeRequests.increment();
+    }
+
+    @Override
+    public void onComplete(final Result result) {
+      if (begun) {
+        activeRequests.decrement();
+      } else {
+        queuedRequests.decrement();
+      }
+      if (replicaUrl != null) {
+        router.end(replicaUrl);
+      }
+      if (result.isFailed()) {
+        failedRequests.increment();
+      } else {
+        succeededRequests.increment();
+      }
+    }
+  }
+}
@@ -5,16 +5,30 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.HspType;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.Deadline;
 import lombok.*;
 import lombok.experimental.Accessors;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface BaseService<T> {
   MetaData findMetaData(SearchParams searchParams);
   Map<String, Object> getTypeFilter();
   Result<List<T>> find(final SearchParams searchParams);
+  CompletableFuture<Result<List<T>>> findAsync(final SearchParams searchParams);
+
+  /**
+   * Pages through all documents matching {@code searchParams} by using Solr's cursor, so the cost of a page doesn't
+   * grow with its offset. The next page is fetched once the previous one was consumed, so only a single page is held
+   * in memory at a time
+   *
+   * @param searchParams the search params to use, {@code rows} determines the page size, {@code start} is ignored
+   * @param pageConsumer consumes each page of documents
+   */
+  void export(final SearchParams searchParams, final Consumer<List<T>> pageConsumer);
   String getEntityName();
 
   /**
@@ -27,7 +41,14 @@ public interface BaseService<T> {
   class SearchParams {
     //ToDo default values can be moved to solr config
     private boolean collapse;
+    /* the position of a cursor based paging, the results are sorted by the unique key additionally if set */
+    private String cursorMark;
+    /* the point in time the search has to be finished by, no time limit applies if not set */
+    private Deadline deadline;
+    /* if set, no deadline is applied, e.g. to lookups by id, whose partial results would be wrong rather than incomplete */
+    private boolean deadlineExempt;
     private DisplayField[] displayFields;
+    private boolean expand;
     private List<String> facets;
     @Builder.Default
     private long facetMinCount = 0;
@@ -38,6 +59,8 @@ public interface BaseService<T> {
     private boolean includeMissingFacet = true;
     private Map<String, String> filterQueries;
     private boolean grouping;
+    /* maximum number of documents per group, the default limit is used if not set */
+    private int groupLimit;
     private boolean highlight;
     private List<String> highlightFields;
     private String highlightQuery;
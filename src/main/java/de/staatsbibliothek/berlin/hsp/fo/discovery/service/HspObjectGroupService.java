@@ -44,4 +44,15 @@ public interface HspObjectGroupService extends BaseService<HspObjectGroup> {
    * @return the Solr {@link QueryResponse}
    */
   Result<List<String>> findHspObjectGroupIds(SearchParams searchParams);
+
+  /**
+   * Queries solr for a page of the members (descriptions and digitizeds) of an object group
+   *
+   * @param groupId the id of the object group
+   * @param types the member types to query for, all member types are used if empty
+   * @param start the index of the first member
+   * @param rows the maximum number of members
+   * @return a {@link Result} containing a {@link HspObjectGroup} that holds the requested members only
+   */
+  Result<HspObjectGroup> findMembers(String groupId, List<String> types, long start, long rows);
 }
@@ -0,0 +1,11 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.InfoStats;
+
+public interface StatsService {
+  /**
+   * Get the number of KODs, digitizeds, catalogs and descriptions, each one in total and per institution
+   * @return the {@link InfoStats}
+   */
+  InfoStats getStats();
+}
@@ -45,7 +45,8 @@ public class GraphQLAdapter {
   }
 
   /**
-   * finds one or many entities of the given {@code clazz}
+   * finds one or many entities of the given {@code clazz}, blocking until the response is received. Reactor waits by
+   * parking, so if the application runs on virtual threads, only the virtual thread is blocked, not its carrier thread
    * @param query the graphQL query
    * @param variables the graphQL variables
    * @param operation the graphQL operation name
@@ -0,0 +1,107 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds a value that is expensive to load, e.g. by requesting Solr. The value is loaded on first access, concurrent
+ * accesses wait for a single load. Once the value is older than the refresh interval, it's reloaded in the background,
+ * while the outdated value is served until the reload is finished. If the reload fails, the outdated value is kept
+ *
+ * @param <T> the type of the value, it should be immutable, because it's shared by all accessing threads
+ */
+@Slf4j
+public class RefreshingSnapshot<T> {
+
+  private final String name;
+  private final Supplier<T> loader;
+  private final Supplier<Duration> refreshInterval;
+  private final AtomicReference<Snapshot<T>> snapshot = new AtomicReference<>();
+  private final AtomicBoolean refreshing = new AtomicBoolean();
+  /* a lock instead of synchronized, because a virtual thread loading within a monitor is pinned to its carrier */
+  private final ReentrantLock initialLoad = new ReentrantLock();
+
+  /**
+   * @param name            the value's name, used for naming the refreshing thread and for logging
+   * @param loader          loads the value
+   * @param refreshInterval supplies the age after which the value is refreshed
+   */
+  public RefreshingSnapshot(final String name, final Supplier<T> loader, final Supplier<Duration> refreshInterval) {
+    this.name = name;
+    this.loader = loader;
+    this.refreshInterval = refreshInterval;
+  }
+
+  /**
+   * @return the current value, it's loaded if there is none yet
+   */
+  public T get() {
+    final Snapshot<T> current = snapshot.get();
+    if (current == null) {
+      return loadInitially();
+    }
+    if (current.isOlderThan(refreshInterval.get())) {
+      refreshInBackground();
+    }
+    return current.value();
+  }
+
+  /**
+   * Loads the value if there is none yet. In contrast to {@link #get()}, a failing load is logged only, so warming up
+   * doesn't prevent the application from starting
+   */
+  public void warm() {
+    try {
+      get();
+    } catch (RuntimeException e) {
+      log.warn("Unable to warm up the {}, it's loaded on first access", name, e);
+    }
+  }
+
+  /* concurrent accesses before the first snapshot exists wait for a single load */
+  private T loadInitially() {
+    initialLoad.lock();
+    try {
+      final Snapshot<T> current = snapshot.get();
+      return current != null ? current.value() : refresh();
+    } finally {
+      initialLoad.unlock();
+    }
+  }
+
+  private void refreshInBackground() {
+    if (!refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    Thread.ofVirtual().name(name + "-refresh").start(() -> {
+      try {
+        refresh();
+      } catch (RuntimeException e) {
+        log.warn("Unable to refresh the {}, keeping the previous one", name, e);
+      } finally {
+        refreshing.set(false);
+      }
+    });
+  }
+
+  private T refresh() {
+    final T value = loader.get();
+    snapshot.set(new Snapshot<>(value, System.nanoTime()));
+    return value;
+  }
+
+  /**
+   * The value and the point in time, measured by {@link System#nanoTime()}, it was loaded at
+   */
+  private record Snapshot<T>(T value, long createdAt) {
+
+    boolean isOlderThan(final Duration age) {
+      return System.nanoTime() - createdAt > age.toNanos();
+    }
+  }
+}
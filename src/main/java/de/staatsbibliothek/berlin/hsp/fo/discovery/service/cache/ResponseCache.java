@@ -0,0 +1,252 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service.cache;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ResponseCacheConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FutureHelper;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.SolrParamsHelper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.solr.common.params.SolrParams;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Caches the mapped results of Solr requests, keyed by a namespace and the canonicalized {@link SolrParams}.
+ * The cache is bounded by the total weight of its entries, evicting the least recently used ones first.
+ * All entries are invalidated once the index version changes, i.e. the index of any replica is updated. It's polled
+ * in the background at the configured interval, starting with the cache. As long as the last successful poll is overdue, no entries are served, so an
+ * unreachable index or a stalled poll doesn't lead to outdated results.
+ * Hits, misses, evictions and the cache's size are exposed as metrics
+ */
+@Component
+@Slf4j
+public class ResponseCache implements MeterBinder {
+
+  private static final String CACHE_NAME = "response";
+  private static final long UNKNOWN_VERSION = -1;
+
+  private final DiscoveryRepository discoveryRepository;
+  private final ResponseCacheConfig responseCacheConfig;
+  /* in access order, so the eldest entry is the least recently used one */
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+  /* incremented on invalidation, so results loaded from an outdated index are not stored afterwards */
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile long indexVersion = UNKNOWN_VERSION;
+  /* time of the last successful poll */
+  private volatile long lastPoll = System.nanoTime();
+  private ScheduledExecutorService poller;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  @Autowired
+  public ResponseCache(final DiscoveryRepository discoveryRepository, final ResponseCacheConfig responseCacheConfig) {
+    this.discoveryRepository = discoveryRepository;
+    this.responseCacheConfig = responseCacheConfig;
+  }
+
+  /**
+   * Starts polling the index version, the first poll is performed immediately
+   */
+  @PostConstruct
+  public synchronized void startPolling() {
+    if (!responseCacheConfig.isEnabled() || poller != null) {
+      return;
+    }
+    lastPoll = System.nanoTime();
+    poller = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().daemon().name("index-version-poll").factory());
+    poller.scheduleWithFixedDelay(this::pollIndexVersion, 0, getPollIntervalNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Stops polling the index version
+   */
+  @PreDestroy
+  public synchronized void stopPolling() {
+    if (poller != null) {
+      poller.shutdownNow();
+      poller = null;
+    }
+  }
+
+  /**
+   * Returns the cached result for the given {@code solrParams}, the result is loaded by using {@code loader} and cached
+   * if there is none
+   *
+   * @param namespace  distinguishes the results that are mapped differently from the same {@code solrParams}
+   * @param solrParams the params of the Solr request
+   * @param loader     performs the Solr request and maps its response
+   * @param <R>        the type of the result
+   * @return the cached or loaded result
+   */
+  @SuppressWarnings("unchecked")
+  public <R> R get(final String namespace, final SolrParams solrParams, final Supplier<R> loader) {
+    if (!responseCacheConfig.isEnabled()) {
+      return loader.get();
+    }
+    final String key = toKey(namespace, solrParams);
+    final long loadGeneration = generation.get();
+    final Entry entry = lookup(key);
+    if (entry != null) {
+      return (R) entry.value();
+    }
+
+    final R value = loader.get();
+    put(key, value, loadGeneration);
+    return value;
+  }
+
+  /**
+   * Like {@link #get(String, SolrParams, Supplier)}, but for results that are loaded asynchronously. The loaded result
+   * is cached once the future returned by {@code loader} is completed successfully
+   *
+   * @param namespace  distinguishes the results that are mapped differently from the same {@code solrParams}
+   * @param solrParams the params of the Solr request
+   * @param loader     performs the Solr request and maps its response asynchronously
+   * @param <R>        the type of the result
+   * @return a future of the cached or loaded result
+   */
+  @SuppressWarnings("unchecked")
+  public <R> CompletableFuture<R> getAsync(final String namespace, final SolrParams solrParams, final Supplier<CompletableFuture<R>> loader) {
+    if (!responseCacheConfig.isEnabled()) {
+      return loader.get();
+    }
+    final String key = toKey(namespace, solrParams);
+    final long loadGeneration = generation.get();
+    final Entry entry = lookup(key);
+    if (entry != null) {
+      return CompletableFuture.completedFuture((R) entry.value());
+    }
+
+    final CompletableFuture<R> loading = loader.get();
+    return FutureHelper.cancelling(loading.thenApply(value -> {
+      put(key, value, loadGeneration);
+      return value;
+    }), loading);
+  }
+
+  private static String toKey(final String namespace, final SolrParams solrParams) {
+    return namespace + '?' + SolrParamsHelper.toCanonicalString(solrParams);
+  }
+
+  private synchronized Entry lookup(final String key) {
+    final Entry entry = isPollOverdue() ? null : entries.get(key);
+    if (entry != null) {
+      hits.increment();
+    } else {
+      misses.increment();
+    }
+    return entry;
+  }
+
+  /**
+   * Removes all entries
+   */
+  public synchronized void invalidate() {
+    generation.incrementAndGet();
+    entries.clear();
+    weight = 0;
+  }
+
+  private synchronized void put(final String key, final Object value, final long loadGeneration) {
+    if (loadGeneration != generation.get() || isPartial(value)) {
+      return;
+    }
+    final Entry entry = new Entry(value, weigh(value));
+    if (entry.weight() > responseCacheConfig.getMaxWeight()) {
+      return;
+    }
+    final Entry previous = entries.put(key, entry);
+    weight += entry.weight() - (previous == null ? 0 : previous.weight());
+
+    final Iterator<Entry> iterator = entries.values().iterator();
+    while (weight > responseCacheConfig.getMaxWeight() && iterator.hasNext()) {
+      weight -= iterator.next().weight();
+      iterator.remove();
+      evictions.increment();
+    }
+  }
+
+  private synchronized long size() {
+    return entries.size();
+  }
+
+  private void pollIndexVersion() {
+    try {
+      final long version = discoveryRepository.getIndexVersion();
+      if (version != indexVersion) {
+        log.debug("Index version changed from {} to {}, invalidating the response cache", indexVersion, version);
+        invalidate();
+        indexVersion = version;
+      }
+      lastPoll = System.nanoTime();
+    } catch (RuntimeException e) {
+      log.warn("Unable to poll the index version", e);
+    }
+  }
+
+  /* a poll is overdue if it hasn't succeeded within twice the interval, which leaves time for a slow poll */
+  private boolean isPollOverdue() {
+    return poller != null && System.nanoTime() - lastPoll > 2 * getPollIntervalNanos();
+  }
+
+  private long getPollIntervalNanos() {
+    return Math.max(responseCacheConfig.getVersionPollInterval().toNanos(), TimeUnit.MILLISECONDS.toNanos(1));
+  }
+
+  @Override
+  public void bindTo(@NonNull final MeterRegistry registry) {
+    FunctionCounter.builder("cache.gets", hits, LongAdder::sum)
+        .tags("cache", CACHE_NAME, "result", "hit")
+        .register(registry);
+    FunctionCounter.builder("cache.gets", misses, LongAdder::sum)
+        .tags("cache", CACHE_NAME, "result", "miss")
+        .register(registry);
+    FunctionCounter.builder("cache.evictions", evictions, LongAdder::sum)
+        .tags("cache", CACHE_NAME)
+        .register(registry);
+    Gauge.builder("cache.size", this, ResponseCache::size)
+        .tags("cache", CACHE_NAME)
+        .register(registry);
+  }
+
+  /* a partial result is incomplete because its search ran out of time, so it isn't reused */
+  private static boolean isPartial(final Object value) {
+    if (value instanceof Result<?> result) {
+      return result.getMetadata() != null && result.getMetadata().isPartialResults();
+    }
+    return value instanceof MetaData metaData && metaData.isPartialResults();
+  }
+
+  /* the weight approximates the memory consumption by the number of mapped documents */
+  private static long weigh(final Object value) {
+    if (value instanceof Result<?> result && result.getPayload() instanceof Collection<?> payload) {
+      return 1L + payload.size();
+    }
+    return 1L;
+  }
+
+  private record Entry(Object value, long weight) {}
+}
@@ -4,6 +4,7 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.util.StringTokenizer;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.apache.commons.collections4.ListUtils;
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.util.ClientUtils;
 
@@ -11,7 +12,9 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -35,7 +38,12 @@ public class Query2SolrQueryConverter {
   /* contains all solr relevant special chars */
   private static final List<Character> SPECIAL_CHARACTERS_WITH_WILDCARDS = ListUtils.union(SPECIAL_CHARACTERS, List.of(QUESTION_MARK, ASTERISK));
   private static final Pattern WILDCARD_PATTERN = Pattern.compile("(?<!\\\\)\\*|\\?");
+  /* popular searches are repeated often, longer terms are not cached to bound the memory */
+  private static final int CACHE_SIZE = 1024;
+  private static final int MAX_CACHED_TERM_LENGTH = 1024;
   private final FieldProvider fieldProvider;
+  /* the converted queries, the conversion only depends on its arguments and the static field configuration */
+  private final Map<ConversionKey, SolrQueryParams> conversions = Collections.synchronizedMap(new LRUMap<>(CACHE_SIZE));
 
   @Autowired
   public Query2SolrQueryConverter(final FieldProvider fieldProvider) {
@@ -62,10 +70,25 @@ public class Query2SolrQueryConverter {
    * @param fields            the search fields to be searched on
    * @param isNegotiated      if the expression should be negotiated
    * @param includeFieldNames if the query should contain the field's name
-   * @return the converted (Solr) query
+   * @return the converted (Solr) query, its tokens are shared with other conversions of the same query and therefore
+   * unmodifiable
    */
   public SolrQueryParams convert(final String term, final List<String> fields, final boolean isNegotiated, final boolean includeFieldNames) {
-    final List<QueryToken> queryTokens = StringTokenToQueryTokenConverter.convert(StringTokenizer.tokenize(term));
+    if (term == null || term.length() > MAX_CACHED_TERM_LENGTH || fields == null) {
+      return compile(term, fields, isNegotiated, includeFieldNames);
+    }
+    final ConversionKey key = new ConversionKey(term, List.copyOf(fields), isNegotiated, includeFieldNames);
+    SolrQueryParams conversion = conversions.get(key);
+    if (conversion == null) {
+      conversion = compile(term, key.fields(), isNegotiated, includeFieldNames);
+      conversions.put(key, conversion);
+    }
+    /* a copy, because the params are mutable */
+    return new SolrQueryParams(conversion.getQuery(), conversion.getTokens(), conversion.getQueryType());
+  }
+
+  private SolrQueryParams compile(final String term, final List<String> fields, final boolean isNegotiated, final boolean includeFieldNames) {
+    final List<QueryToken> queryTokens = List.copyOf(StringTokenToQueryTokenConverter.convert(StringTokenizer.tokenize(term)));
     final QueryType queryType = detectQueryType(queryTokens);
     final String query = convertQuery(fields, queryTokens, isNegotiated, includeFieldNames);
     return new SolrQueryParams(query, queryTokens, queryType);
@@ -358,6 +381,8 @@ public class Query2SolrQueryConverter {
    return createEmbeddedQuery(queryWithQueryParser);
   }
 
+  private record ConversionKey(String term, List<String> fields, boolean isNegotiated, boolean includeFieldNames) {}
+
   @Data
   @AllArgsConstructor
   public static class SolrQueryParams {
@@ -31,6 +31,7 @@ import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Stats;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.TeiDocument;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspDescription;
@@ -42,9 +43,7 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl.FieldTypeInf
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.EnumsConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.HspType;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight.FragmentHelper;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight.HighlightHelper;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight.HighlightProcessor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.CollectionUtils;
 import org.apache.solr.client.solrj.response.*;
@@ -57,10 +56,10 @@ import org.apache.solr.common.util.NamedList;
 import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  *
@@ -121,6 +120,39 @@ public class QueryResponse2ResponseEntityConverter {
     return QueryResponse2ResponseEntityConverter.extractHspObjectGroups(queryResponse);
   }
 
+  /**
+   * creates a list of HspObjectGroups from a collapsed and expanded query response
+   *
+   * @param queryResponse the query response from solr
+   * @return the HspObjectGroups as List
+   */
+  public static List<HspObjectGroup> getExpandedHspObjectGroups(final QueryResponse queryResponse) {
+    if (queryResponse.getException() != null) {
+      throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, queryResponse.getException()
+          .getMessage());
+    }
+    return QueryResponse2ResponseEntityConverter.extractExpandedHspObjectGroups(queryResponse);
+  }
+
+  /**
+   * creates a HspObjectGroup holding the members (descriptions and digitizeds) contained in an ungrouped query response
+   *
+   * @param queryResponse the query response from solr
+   * @return the HspObjectGroup containing the members
+   */
+  public static HspObjectGroup getHspObjectGroupMembers(final QueryResponse queryResponse) {
+    if (queryResponse.getException() != null) {
+      throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, queryResponse.getException()
+          .getMessage());
+    }
+    if (queryResponse.getResults() == null) {
+      return new HspObjectGroup();
+    }
+    final HspObjectGroup hog = extractHspObjectGroup(queryResponse.getResults());
+    hog.setMemberCount(queryResponse.getResults().getNumFound());
+    return hog;
+  }
+
   public static List<String> getHspObjectGroupIds(final QueryResponse queryResponse) {
     if (queryResponse.getException() != null) {
       throw ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, queryResponse.getException()
@@ -146,6 +178,8 @@ public class QueryResponse2ResponseEntityConverter {
       for (Group group : groupList) {
         final HspObjectGroup hog = extractHspObjectGroup(group.getResult());
         if (hog.getHspObject() != null) {
+          /* the group's result contains the KOD itself as well */
+          hog.setMemberCount(group.getResult().getNumFound() - 1);
           ret.add(hog);
         }
       }
@@ -153,7 +187,39 @@ public class QueryResponse2ResponseEntityConverter {
     return ret;
   }
 
-  private static HspObjectGroup extractHspObjectGroup(final SolrDocumentList documents) {
+  /**
+   * extracts and returns all contained HspObjectGroups from a collapsed and expanded query response.
+   * Each group consists of the collapsed document (the group head) and the documents expanded for the head's group id
+   *
+   * @param queryResponse the query response from solr
+   * @return the HspObjectGroup as List
+   */
+  public static List<HspObjectGroup> extractExpandedHspObjectGroups(final QueryResponse queryResponse) {
+    final List<HspObjectGroup> ret = new ArrayList<>();
+
+    if (queryResponse.getResults() != null) {
+      final Map<String, SolrDocumentList> expandedResults = queryResponse.getExpandedResults() == null ? Map.of() : queryResponse.getExpandedResults();
+      for (SolrDocument head : queryResponse.getResults()) {
+        final List<SolrDocument> documents = new ArrayList<>();
+        final Object groupId = head.getFieldValue(FIELD_NAME_GROUP_ID);
+        /* the group consists of the head and all expanded documents, one of them being the KOD */
+        long groupSize = 1;
+        documents.add(head);
+        if (groupId != null && expandedResults.containsKey(groupId.toString())) {
+          documents.addAll(expandedResults.get(groupId.toString()));
+          groupSize += expandedResults.get(groupId.toString()).getNumFound();
+        }
+        final HspObjectGroup hog = extractHspObjectGroup(documents);
+        if (hog.getHspObject() != null) {
+          hog.setMemberCount(groupSize - 1);
+          ret.add(hog);
+        }
+      }
+    }
+    return ret;
+  }
+
+  private static HspObjectGroup extractHspObjectGroup(final List<SolrDocument> documents) {
     HspObjectGroup hog = new HspObjectGroup();
     String type;
     for (SolrDocument solrDoc : documents) {
@@ -194,8 +260,8 @@ public class QueryResponse2ResponseEntityConverter {
 
   private static <T> T extract(final SolrDocument solrDocument, final Class<T> clazz) {
     try {
-      return mapper.readValue(solrDocument.jsonStr(), clazz);
-    } catch (JsonProcessingException e) {
+      return SolrDocumentBinder.forClass(mapper, clazz).bind(solrDocument);
+    } catch (IOException | IllegalArgumentException e) {
       log.warn("Error while mapping object to class {}, will skip.", clazz, e);
       return null;
     }
@@ -318,6 +384,59 @@ public class QueryResponse2ResponseEntityConverter {
     return ret;
   }
 
+  /**
+   * extracts the result of the JSON Facet API, i.e. the {@code facets} section, from the query response
+   *
+   * @param queryResponse the query response from solr
+   * @return the JSON facets, an empty {@link NamedList} if there are none
+   */
+  public static NamedList<?> extractJsonFacetsFromQueryResponse(final QueryResponse queryResponse) {
+    if (queryResponse == null || queryResponse.getResponse() == null || !(queryResponse.getResponse().get("facets") instanceof NamedList<?> facets)) {
+      return new NamedList<>();
+    }
+    return facets;
+  }
+
+  /**
+   * extracts the buckets of a nested terms facet of the JSON Facet API, mapping each bucket's value to the bucket
+   *
+   * @param parent    the facet or bucket containing the terms facet
+   * @param facetName the terms facet's name
+   * @return the buckets, an empty {@link Map} if there is no such facet
+   */
+  public static Map<String, NamedList<?>> extractJsonFacetBuckets(final NamedList<?> parent, final String facetName) {
+    final Map<String, NamedList<?>> result = new LinkedHashMap<>();
+    if (parent != null && parent.get(facetName) instanceof NamedList<?> facet && facet.get("buckets") instanceof List<?> buckets) {
+      for (Object item : buckets) {
+        if (item instanceof NamedList<?> bucket) {
+          result.put(String.valueOf(bucket.get("val")), bucket);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * extracts the counts of a nested terms facet of the JSON Facet API. Like for {@link #extractFacetsFromQueryResponse(QueryResponse)},
+   * the count of documents missing the facet's field is mapped to {@link #FIELD_NAME_MISSING}, if it's not zero
+   *
+   * @param parent    the facet or bucket containing the terms facet
+   * @param facetName the terms facet's name
+   * @return the counts by value, an empty {@link Map} if there is no such facet
+   */
+  public static Map<String, Long> extractJsonFacetCounts(final NamedList<?> parent, final String facetName) {
+    final Map<String, Long> result = new LinkedHashMap<>();
+    extractJsonFacetBuckets(parent, facetName).forEach((value, bucket) -> result.put(value, getJsonFacetCount(bucket)));
+    if (parent != null && parent.get(facetName) instanceof NamedList<?> facet && facet.get("missing") instanceof NamedList<?> missing && getJsonFacetCount(missing) > 0) {
+      result.put(FIELD_NAME_MISSING, getJsonFacetCount(missing));
+    }
+    return result;
+  }
+
+  private static long getJsonFacetCount(final NamedList<?> bucket) {
+    return bucket.get("count") instanceof Number count ? count.longValue() : 0L;
+  }
+
   public static Map<String, Stats> extractStatsFromQueryResponse(final QueryResponse queryResponse) {
     if (queryResponse != null && queryResponse.getFieldStatsInfo() != null) {
       final Map<String, Stats> ret = new HashMap<>();
@@ -353,9 +472,14 @@ public class QueryResponse2ResponseEntityConverter {
         .withStart(start)
         .withStats(stats)
         .withSpellCorrectedTerm(spellCorrectedTerm)
+        .withPartialResults(isPartialResults(queryResponse))
         .build();
   }
 
+  private static boolean isPartialResults(final QueryResponse queryResponse) {
+    return queryResponse.getHeader() != null && Boolean.TRUE.equals(queryResponse.getHeader().get("partialResults"));
+  }
+
   public static List<String> extractSolrDocumentIds(final QueryResponse queryResponse) {
     List<String> groupIds = new LinkedList<>();
     if (queryResponse != null && queryResponse.getResults() != null) {
@@ -382,6 +506,26 @@ public class QueryResponse2ResponseEntityConverter {
     return result;
   }
 
+  /**
+   * Extracts the TEI documents and their modification dates, unlike {@link #extractTeiDocumentsFromSolrResponse}
+   * documents without TEI are kept, so the modification date can be requested without the TEI
+   *
+   * @param queryResponse the response containing the documents
+   * @return the TEI documents
+   */
+  public static List<TeiDocument> extractTeiDocuments(final QueryResponse queryResponse) {
+    final List<TeiDocument> result = new ArrayList<>();
+    final SolrDocumentList docList = queryResponse.getResults();
+    if (docList == null) {
+      return result;
+    }
+    for (SolrDocument doc : docList) {
+      final Object lastModified = doc.getFieldValue(DisplayField.LAST_MODIFIED.getName());
+      result.add(new TeiDocument((String) doc.getFieldValue(DisplayField.TEI_DOCUMENT.getName()), lastModified instanceof Date date ? date : null));
+    }
+    return result;
+  }
+
   /**
    * Extracts a list of {@link FieldInformation} from a {@link SchemaResponse.FieldsResponse}
    * @param fieldsResponse containing the information to map
@@ -450,53 +594,8 @@ public class QueryResponse2ResponseEntityConverter {
         .collect(
             Collectors.toMap(
                 Map.Entry::getKey,
-                e -> {
-                  Map<String, List<String>> hl = e.getValue();
-                  hl = mergeHighlightFields(hl, highlightConfig.getTagName());
-                  hl = mergeHighlightedTerms(hl, highlightConfig.getTagName());
-                  hl = createFragments(hl, highlightConfig.getTagName(), highlightConfig.getPadding());
-                  return hl;
-                }
+                e -> HighlightProcessor.process(e.getValue(), highlightConfig.getTagName(), highlightConfig.getPadding())
             )
         );
   }
-
-  private static Map<String, List<String>> mergeHighlightFields(final Map<String, List<String>> highlightInfo, final String tagName) {
-    return highlightInfo.entrySet().stream().collect(Collectors.toMap(
-        k -> FieldProvider.removeOptionalSuffix(k.getKey()),
-        Map.Entry::getValue,
-        (hl1, hl2) -> HighlightHelper.mergeHighlights(hl1, hl2, tagName)
-        ));
-  }
-
-  /**
-   * Merges all occurrences of contiguous highlight fragments (wrapped by <em></em>)
-   * highlight data might look like this (as JSON representation)
-   * <pre>
-   * {@code
-   * "repository-search": [
-   *   "consequat <em>cupidatat</em> nisi"
-   * ]
-   * </pre>
-   *
-   * @param highlighting the highlighting information squeezed into some maps
-   * @return the highlighting information containing the merged fragments
-   */
-  private static Map<String, List<String>> mergeHighlightedTerms(final Map<String, List<String>> highlighting, final String tagName) {
-    return highlighting.entrySet()
-        .stream()
-        .collect(Collectors.toMap(
-            Map.Entry::getKey,
-            hl -> hl.getValue().stream().map(v -> HighlightHelper.mergeContiguousElements(v, tagName)).collect(Collectors.toList())
-        ));
-  }
-
-  private static Map<String, List<String>> createFragments(Map<String, List<String>> highlighting, final String tagName, final int padding) {
-    return highlighting.entrySet()
-        .stream()
-        .collect(Collectors.toMap(
-            Map.Entry::getKey,
-            hl -> hl.getValue().stream().map(v -> FragmentHelper.fragmentHighlightInformation(v, tagName, padding)).flatMap(Stream::of).collect(Collectors.toList())
-        ));
-  }
 }
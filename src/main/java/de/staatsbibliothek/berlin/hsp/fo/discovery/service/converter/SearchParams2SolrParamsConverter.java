@@ -32,10 +32,13 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.SortField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.StatField;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.Deadline;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight.DOMHelper;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.HighlightParams;
 import org.apache.solr.common.params.ModifiableSolrParams;
 import org.apache.solr.common.params.SolrParams;
@@ -49,7 +52,12 @@ import java.util.stream.Collectors;
 
 @Component
 public class SearchParams2SolrParamsConverter {
+  public static final String FIELD_NAME_CPU_ALLOWED = "cpuAllowed";
   private static final String FIELD_NAME_DEF_TYPE = "defType";
+  private static final String FIELD_NAME_EXPAND = "expand";
+  private static final String FIELD_NAME_EXPAND_FILTER_QUERY = "expand.fq";
+  private static final String FIELD_NAME_EXPAND_QUERY = "expand.q";
+  private static final String FIELD_NAME_EXPAND_ROWS = "expand.rows";
   private static final String FIELD_NAME_FACET = "facet";
   private static final String FIELD_NAME_FACET_EXCLUDE = "facet.excludeTerms";
   private static final String FIELD_NAME_FACET_FIELD = "facet.field";
@@ -68,11 +76,17 @@ public class SearchParams2SolrParamsConverter {
   private static final String FIELD_NAME_SORT = "sort";
   private static final String FIELD_NAME_SPELLCHECK = "spellcheck";
   private static final String FIELD_NAME_SPELLCHECK_QUERY = "spellcheck.q";
+  public static final String FIELD_NAME_TIME_ALLOWED = "timeAllowed";
   private static final String FIELD_NAME_USER_FIELDS = "uf";
 
   private static final String FILTER_TAG_PREFIX = "solr_fq_";
-  private static final int GROUP_LIMIT = 100;
+  /* a cursor or a stable paging requires the sort to be unambiguous, so the unique key is used as (tie-breaking) sort */
+  public static final String UNIQUE_KEY_SORT = "id asc";
+  public static final int DEFAULT_GROUP_LIMIT = 100;
   private static final List<String> HIGHLIGHT_FIELDS_IGNORE = List.of("group-id-search");
+  /* the search fields only depend on the query type, the requested fields and the static field configuration */
+  private static final int SEARCH_FIELDS_CACHE_SIZE = 256;
+  private final Map<SearchFieldsKey, Set<String>> searchFields = Collections.synchronizedMap(new LRUMap<>(SEARCH_FIELDS_CACHE_SIZE));
 
   private ExtendedSearchStringToQueryParamsConverter extendedSearchConverter;
   private FieldProvider fieldProvider;
@@ -109,18 +123,21 @@ public class SearchParams2SolrParamsConverter {
     solrParams.set(FIELD_NAME_DEF_TYPE, BaseService.SearchParams.QUERY_PARSER);
     solrParams.set(FIELD_NAME_USER_FIELDS, "* _query_");
     solrParams.set(FIELD_NAME_FIELDS, DisplayField.getNames(params.getDisplayFields()));
-    if (SortField.isValid(params.getSortPhrase())) {
+    if (SortField.isValid(params.getSortPhrase()) || UNIQUE_KEY_SORT.equals(params.getSortPhrase())) {
       solrParams.set(FIELD_NAME_SORT, params.getSortPhrase());
     }
     solrParams.set(FIELD_NAME_OPERATOR, params.getQueryOperator().toString());
     enrichWithSpellchecking(solrParams, queryParams);
     enrichWithMetaFields(solrParams, params.getStart(), params.getRows());
+    enrichWithCursor(solrParams, params.getCursorMark());
     enrichWithFilterQuery(solrParams, params.getFilterQueries());
     enrichWithHighlighting(params, solrParams, highlightConfig.getTagName(), highlightConfig.getSnippetCount());
     enrichWithFacets(solrParams, params);
     enrichWithStats(solrParams, params.getStats());
     enrichWithCollapse(solrParams, params.isCollapse());
-    enrichWithGrouping(solrParams, params.isGrouping());
+    enrichWithExpand(solrParams, params.isExpand(), getGroupLimit(params));
+    enrichWithGrouping(solrParams, params.isGrouping(), getGroupLimit(params));
+    enrichWithDeadline(solrParams, params.getDeadline());
 
     /* prepare highlighting by re-writing them to the source params */
     params.setHighlightQuery(queryParams.getQuery());
@@ -130,11 +147,31 @@ public class SearchParams2SolrParamsConverter {
     return solrParams;
   }
 
+  /* solr stops searching once the time left is used up and marks its response as partial */
+  private static void enrichWithDeadline(final ModifiableSolrParams solrParams, final Deadline deadline) {
+    if (deadline != null) {
+      final String millisLeft = Long.toString(Math.max(1, deadline.remaining().toMillis()));
+      solrParams.set(FIELD_NAME_TIME_ALLOWED, millisLeft);
+      /* limits the cpu time as well, it's ignored by solr versions not supporting it */
+      solrParams.set(FIELD_NAME_CPU_ALLOWED, millisLeft);
+    }
+  }
+
   private static void enrichWithMetaFields(final ModifiableSolrParams solrParams, final long start, final long rows) {
     solrParams.set("start", Long.toString(start));
     solrParams.set("rows", Long.toString(rows));
   }
 
+  /* the cursor replaces the offset, which has to be zero then */
+  private static void enrichWithCursor(final ModifiableSolrParams solrParams, final String cursorMark) {
+    if (cursorMark != null) {
+      final String sort = solrParams.get(FIELD_NAME_SORT);
+      solrParams.set(FIELD_NAME_SORT, sort == null ? UNIQUE_KEY_SORT : sort + "," + UNIQUE_KEY_SORT);
+      solrParams.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+      solrParams.set("start", "0");
+    }
+  }
+
   private void enrichWithHighlighting(final BaseService.SearchParams sourceParams, final EnhancedModifiableSolrParams targetParams, final String tagName, final int snippetCount) {
     if (sourceParams.isHighlight()) {
       targetParams.set("hl", "on");
@@ -171,11 +208,15 @@ public class SearchParams2SolrParamsConverter {
         .toArray(String[]::new);
   }
 
-  private void enrichWithGrouping(final ModifiableSolrParams solrParams, final boolean grouping) {
+  private static int getGroupLimit(final BaseService.SearchParams params) {
+    return params.getGroupLimit() > 0 ? params.getGroupLimit() : DEFAULT_GROUP_LIMIT;
+  }
+
+  private void enrichWithGrouping(final ModifiableSolrParams solrParams, final boolean grouping, final int groupLimit) {
     if (grouping) {
       solrParams.set("group", true);
       solrParams.set("group.field", fieldProvider.getBasicName("group-id-search").get());
-      solrParams.set("group.limit", GROUP_LIMIT);
+      solrParams.set("group.limit", groupLimit);
       solrParams.set("group.ngroups", true);
     }
   }
@@ -186,6 +227,18 @@ public class SearchParams2SolrParamsConverter {
     }
   }
 
+  /**
+   * Expands each collapsed group by all of its remaining members, regardless of whether they match the query or the filter queries
+   */
+  private static void enrichWithExpand(final ModifiableSolrParams solrParams, final boolean expand, final int groupLimit) {
+    if (expand) {
+      solrParams.set(FIELD_NAME_EXPAND, true);
+      solrParams.set(FIELD_NAME_EXPAND_QUERY, "*:*");
+      solrParams.set(FIELD_NAME_EXPAND_FILTER_QUERY, "*:*");
+      solrParams.set(FIELD_NAME_EXPAND_ROWS, groupLimit);
+    }
+  }
+
   private static void enrichWithFacets(final ModifiableSolrParams targetParams, final BaseService.SearchParams sourceParams) {
     targetParams.add(FIELD_NAME_FACET_EXCLUDE, sourceParams.getFacetTermsExcluded() == null ? "" : String.join(" ", sourceParams.getFacetTermsExcluded()));
 
@@ -214,7 +267,7 @@ public class SearchParams2SolrParamsConverter {
       for (Entry<String, String> fq : filterQueries.entrySet()) {
         if (StringUtils.isNotEmpty(fq.getKey())) {
           String tag = StringUtils.isEmpty(fq.getValue()) ? "" : createLocalParameters("tag", FILTER_TAG_PREFIX + fq.getValue());
-          solrParams.add(FIELD_NAME_FILTER_QUERY, tag + fq.getKey());
+          solrParams.add(FIELD_NAME_FILTER_QUERY, prependLocalParameters(tag, fq.getKey()));
         }
       }
     }
@@ -231,6 +284,14 @@ public class SearchParams2SolrParamsConverter {
       }
   }
 
+  /* a query may start with local parameters already, e.g. for disabling the filter cache, both are merged then */
+  private static String prependLocalParameters(final String localParameters, final String query) {
+    if (localParameters.isEmpty() || !query.startsWith("{!")) {
+      return localParameters + query;
+    }
+    return localParameters.substring(0, localParameters.length() - 1) + " " + query.substring(2);
+  }
+
   private static String createLocalParameters(String... params) {
     if (params == null || params.length == 0 || params.length % 2 != 0) {
       return "";
@@ -291,6 +352,16 @@ public class SearchParams2SolrParamsConverter {
   }
 
   private Set<String> getSearchFields(final QueryType queryType, final List<String> fields) {
+    final SearchFieldsKey key = new SearchFieldsKey(queryType, List.copyOf(fields));
+    Set<String> result = searchFields.get(key);
+    if (result == null) {
+      result = collectSearchFields(queryType, key.fields());
+      searchFields.put(key, result);
+    }
+    return result;
+  }
+
+  private Set<String> collectSearchFields(final QueryType queryType, final List<String> fields) {
     List<String> ret = new LinkedList<>();
     switch (queryType) {
       case STANDARD -> {
@@ -312,6 +383,8 @@ public class SearchParams2SolrParamsConverter {
     return Set.copyOf(ret);
   }
 
+  private record SearchFieldsKey(QueryType queryType, List<String> fields) {}
+
   /**
    * A subclass of {@link ModifiableSolrParams} that provides additional utility methods.
    */
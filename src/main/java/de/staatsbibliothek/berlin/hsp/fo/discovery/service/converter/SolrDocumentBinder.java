@@ -0,0 +1,159 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBase;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.util.ClassUtil;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.apache.solr.common.SolrDocument;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binds the fields of a {@link SolrDocument} directly to a model class, without serializing the document to JSON and
+ * parsing it again. The properties are resolved once per class by Jackson, so {@code @JsonProperty}, {@code @JsonAlias}
+ * and {@code @JsonFormat} are respected the same way as by the {@link ObjectMapper} the binder is created with.
+ * Values of properties with a simple type (or an array of it), that are deserialized by Jackson's standard
+ * deserializer without a specific format, are assigned as they are if they already match the property's type. All
+ * other values are deserialized by the property's own deserializer
+ *
+ * @param <T> the model class
+ */
+public class SolrDocumentBinder<T> {
+
+  /* the properties are resolved by the mapper's configuration, so a binder is only valid for the mapper it's created with */
+  private static final Map<BinderKey, SolrDocumentBinder<?>> binders = new ConcurrentHashMap<>();
+
+  private final BeanDeserializerBase deserializer;
+  /* names of the properties, whose values may be assigned without deserializing them */
+  private final Set<String> directProperties = new HashSet<>();
+  private final ObjectMapper mapper;
+
+  private SolrDocumentBinder(final ObjectMapper mapper, final Class<T> clazz) {
+    this.mapper = mapper;
+    try {
+      final JsonDeserializer<Object> rootDeserializer = createContext(null).findRootValueDeserializer(mapper.constructType(clazz));
+      if (!(rootDeserializer instanceof BeanDeserializerBase beanDeserializer)) {
+        throw new IllegalArgumentException(String.format("%s is not a bean class", clazz));
+      }
+      this.deserializer = beanDeserializer;
+      beanDeserializer.properties().forEachRemaining(property -> {
+        if (isDirectlyAssignable(property)) {
+          directProperties.add(property.getName());
+        }
+      });
+    } catch (IOException e) {
+      throw new IllegalArgumentException(String.format("Unable to resolve the properties of %s", clazz), e);
+    }
+  }
+
+  /**
+   * Returns the binder for the given mapper and class, the binder is created on first use
+   *
+   * @param mapper the mapper whose configuration is used for resolving the properties
+   * @param clazz  the model class
+   * @param <T>    the model class
+   * @return the binder for {@code mapper} and {@code clazz}
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> SolrDocumentBinder<T> forClass(final ObjectMapper mapper, final Class<T> clazz) {
+    return (SolrDocumentBinder<T>) binders.computeIfAbsent(new BinderKey(mapper, clazz), key -> new SolrDocumentBinder<>(mapper, clazz));
+  }
+
+  /**
+   * Creates an instance of the model class and binds all known fields of {@code solrDocument} to it. Unknown fields
+   * are ignored.
+   *
+   * @param solrDocument the document to bind
+   * @return the bound instance
+   * @throws IOException if a value could not be converted to the type of its property
+   */
+  @SuppressWarnings("unchecked")
+  public T bind(final SolrDocument solrDocument) throws IOException {
+    final T bean = (T) deserializer.getValueInstantiator().createUsingDefault(createContext(null));
+
+    for (Map.Entry<String, Object> field : solrDocument) {
+      final SettableBeanProperty property = deserializer.findProperty(field.getKey());
+      if (property == null || field.getValue() == null) {
+        continue;
+      }
+      final Object value = directProperties.contains(property.getName()) ? toPropertyType(property.getType().getRawClass(), field.getValue()) : null;
+      if (value != null) {
+        property.set(bean, value);
+      } else {
+        deserializeAndSet(property, field.getValue(), bean);
+      }
+    }
+    return bean;
+  }
+
+  /**
+   * @return {@code true} if the property is deserialized by Jackson's standard deserializer of a simple type or an array
+   * of it, without any specific format, {@code false} otherwise
+   */
+  private boolean isDirectlyAssignable(final SettableBeanProperty property) {
+    final Class<?> type = property.getType().getRawClass();
+    return property.getAnnotation(JsonDeserialize.class) == null
+        && ClassUtil.isJacksonStdImpl(property.getValueDeserializer())
+        && JsonFormat.Value.empty().equals(property.findPropertyFormat(mapper.getDeserializationConfig(), type))
+        && (isSimpleType(type) || (type.isArray() && isSimpleType(type.getComponentType())));
+  }
+
+  private static boolean isSimpleType(final Class<?> type) {
+    return type.isPrimitive() || type == String.class || type == Boolean.class || Number.class.isAssignableFrom(type) || type == Date.class;
+  }
+
+  /* the context has to know the parser it's used with, as coercions depend on the parser's capabilities */
+  private DeserializationContext createContext(final JsonParser parser) {
+    return ((DefaultDeserializationContext) mapper.getDeserializationContext()).createInstance(mapper.getDeserializationConfig(), parser, mapper.getInjectableValues());
+  }
+
+  private void deserializeAndSet(final SettableBeanProperty property, final Object value, final Object bean) throws IOException {
+    try (TokenBuffer buffer = new TokenBuffer(mapper, false)) {
+      mapper.writeValue(buffer, value);
+      try (JsonParser parser = buffer.asParser(mapper)) {
+        parser.nextToken();
+        property.deserializeAndSet(parser, createContext(parser), bean);
+      }
+    }
+  }
+
+  /**
+   * @return {@code value} if it is assignable to {@code type}, an array of {@code type} if {@code value} is a
+   * collection of matching elements, {@code null} otherwise
+   */
+  private static Object toPropertyType(final Class<?> type, final Object value) {
+    if (type.isInstance(value)) {
+      return value;
+    }
+    if (type.isArray() && value instanceof Collection<?> collection) {
+      final Class<?> componentType = type.getComponentType();
+      final Object array = Array.newInstance(componentType, collection.size());
+      int i = 0;
+      for (Object item : collection) {
+        if (!componentType.isInstance(item)) {
+          return null;
+        }
+        Array.set(array, i++, item);
+      }
+      return array;
+    }
+    return null;
+  }
+
+  private record BinderKey(ObjectMapper mapper, Class<?> clazz) {
+  }
+}
@@ -1,33 +1,56 @@
 package de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl;
 
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.DeadlineConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.SpellCorrectionConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.cache.ResponseCache;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.SearchParams2SolrParamsConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.FacetField;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.Deadline;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FutureHelper;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.util.SpellcheckHelper;
 import org.apache.commons.collections4.CollectionUtils;
+import org.apache.commons.collections4.map.LRUMap;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.apache.solr.common.params.SolrParams;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 public class BaseServiceImpl<T> implements BaseService<T> {
+  /* maps the responses of asynchronous searches on virtual threads */
+  /* runs concurrent searches, e.g. speculative spell corrected ones, on virtual threads */
+  protected static final ExecutorService searchExecutor = Executors.newVirtualThreadPerTaskExecutor();
 
   protected DiscoveryRepository discoveryRepository;
   protected HighlightConfig highlightConfig;
   protected final Map<String, Object> typeFilter;
   private final Class<T> genericType;
   private SearchParams2SolrParamsConverter searchParams2SolrParamsConverter;
+  private SpellCorrectionConfig spellCorrectionConfig;
+  private ResponseCache responseCache;
+  private DeadlineConfig deadlineConfig;
+  /* maps phrases to their spell corrected phrases, used for issuing speculative searches */
+  private Map<String, String> knownSpellCorrections = Collections.emptyMap();
 
   @Autowired
   public void setHighlightConfig(final HighlightConfig highlightConfig) {
@@ -44,6 +67,22 @@ public class BaseServiceImpl<T> implements BaseService<T> {
     this.searchParams2SolrParamsConverter = searchParams2SolrParamsConverter;
   }
 
+  @Autowired
+  public void setSpellCorrectionConfig(final SpellCorrectionConfig spellCorrectionConfig) {
+    this.spellCorrectionConfig = spellCorrectionConfig;
+    this.knownSpellCorrections = Collections.synchronizedMap(new LRUMap<>(Math.max(1, spellCorrectionConfig.getCacheSize())));
+  }
+
+  @Autowired
+  public void setResponseCache(final ResponseCache responseCache) {
+    this.responseCache = responseCache;
+  }
+
+  @Autowired
+  public void setDeadlineConfig(final DeadlineConfig deadlineConfig) {
+    this.deadlineConfig = deadlineConfig;
+  }
+
   public BaseServiceImpl(final Map<String, Object> typeFilter, final Class<T> clazz) {
     this.genericType = clazz;
     this.typeFilter = typeFilter;
@@ -51,21 +90,177 @@ public class BaseServiceImpl<T> implements BaseService<T> {
 
   @Override
   public Result<List<T>> find(SearchParams searchParams) {
-    QueryResponse queryResponse = search(searchParams);
-    Result<List<T>> result = extractResult(queryResponse);
+    applyDeadline(searchParams);
+    return findWithSpellCorrection(searchParams, params -> findCached("find", params, this::extractResult), params -> findCachedAsync("find", params, this::extractResult));
+  }
 
-    if (searchParams.getRows() > 0 && CollectionUtils.isEmpty(result.getPayload()) && searchParams.useSpellCorrection()) {
-      final String spellCorrectedTerm = getSpellCorrection(result, searchParams);
-      if(StringUtils.isNotEmpty(spellCorrectedTerm)) {
-        searchParams.setPhrase(spellCorrectedTerm);
-        // be careful to avoid recursion
-        searchParams.useSpellCorrection(false);
-        result = find(searchParams);
+  /**
+   * Like {@link #find(SearchParams)}, but the Solr requests are performed without blocking the calling thread. If
+   * there's no result and spell correction is enabled, the spell corrected search is chained to the original one
+   *
+   * @param searchParams the search params to use, will be updated by the spell corrected phrase if it is used
+   * @return a future of the original or spell corrected search's result
+   */
+  @Override
+  public CompletableFuture<Result<List<T>>> findAsync(final SearchParams searchParams) {
+    applyDeadline(searchParams);
+    return findWithSpellCorrectionAsync(searchParams, params -> findCachedAsync("find", params, this::extractResult));
+  }
+
+  /**
+   * Like {@link #findWithSpellCorrection(SearchParams, Function)}, but the search is performed without blocking the
+   * calling thread. If there's no result and spell correction is enabled, the spell corrected search is chained to the
+   * original one, or, in speculative mode, the concurrently issued spell corrected search is used
+   *
+   * @param searchParams   the search params to use, will be updated by the spell corrected phrase if it is used
+   * @param searchFunction the function performing the search asynchronously
+   * @param <P>            the type of the result's items
+   * @return a future of the original or spell corrected search's result
+   */
+  protected <P> CompletableFuture<Result<List<P>>> findWithSpellCorrectionAsync(final SearchParams searchParams, final Function<SearchParams, CompletableFuture<Result<List<P>>>> searchFunction) {
+    final String phrase = searchParams.getPhrase();
+    final Speculation<P> speculation = speculate(searchParams, searchFunction);
+    final CompletableFuture<Result<List<P>>> original = searchFunction.apply(searchParams);
+    /* the search in progress, it's cancelled if the returned future is cancelled */
+    final AtomicReference<CompletableFuture<Result<List<P>>>> current = new AtomicReference<>(original);
+    final CompletableFuture<Result<List<P>>> result = original.thenCompose(originalResult -> {
+      final String spellCorrectedTerm = getRequiredSpellCorrection(originalResult, searchParams);
+      if (StringUtils.isEmpty(spellCorrectedTerm)) {
+        if (speculation != null && CollectionUtils.isNotEmpty(originalResult.getPayload())) {
+          knownSpellCorrections.remove(phrase);
+        }
+        return CompletableFuture.completedFuture(originalResult);
+      }
+      if (isSpeculative()) {
+        knownSpellCorrections.put(phrase, spellCorrectedTerm);
+      }
+      if (speculation != null && spellCorrectedTerm.equals(speculation.params().getPhrase())) {
+        current.set(speculation.result());
+        return speculation.result().thenApply(speculativeResult -> {
+          adoptSpellCorrectedParams(searchParams, speculation.params());
+          return speculativeResult;
+        });
+      }
+      searchParams.setPhrase(spellCorrectedTerm);
+      // be careful to avoid recursion
+      searchParams.useSpellCorrection(false);
+      current.set(searchFunction.apply(searchParams));
+      return current.get();
+    });
+    if (speculation != null) {
+      /* a no-op if the speculation was used, as it's completed by then */
+      result.whenComplete((r, ex) -> speculation.result().cancel(true));
+    }
+    return FutureHelper.onCancellation(result, () -> current.get().cancel(true));
+  }
+
+  /**
+   * Sets the search's deadline according to the configured budget, unless it's already set, e.g. by a preceding search
+   * of the same request
+   *
+   * @param searchParams the search params to set the deadline to
+   */
+  protected void applyDeadline(final SearchParams searchParams) {
+    if (deadlineConfig != null && deadlineConfig.isEnabled() && searchParams.getDeadline() == null && !searchParams.isDeadlineExempt()) {
+      searchParams.setDeadline(Deadline.after(deadlineConfig.getBudget()));
+    }
+  }
+
+  /**
+   * Performs a search by using the given {@code searchFunction}. If there's no result and spell correction is enabled,
+   * the search is repeated with the spell corrected phrase.
+   * In speculative mode, the spell corrected search for a phrase whose correction is already known is issued
+   * concurrently to the original search, so a misspelled phrase costs a single round trip only
+   *
+   * @param searchParams        the search params to use, will be updated by the spell corrected phrase if it is used
+   * @param searchFunction      the function performing the search
+   * @param asyncSearchFunction the function performing the speculative search asynchronously, cancelling its future
+   *                            has to abort the Solr request
+   * @param <P>                 the type of the result's items
+   * @return the result of the original or spell corrected search
+   */
+  protected <P> Result<List<P>> findWithSpellCorrection(final SearchParams searchParams, final Function<SearchParams, Result<List<P>>> searchFunction,
+                                                        final Function<SearchParams, CompletableFuture<Result<List<P>>>> asyncSearchFunction) {
+    final String phrase = searchParams.getPhrase();
+    final Speculation<P> speculation = speculate(searchParams, asyncSearchFunction);
+    Result<List<P>> result = searchFunction.apply(searchParams);
+
+    final String spellCorrectedTerm = getRequiredSpellCorrection(result, searchParams);
+    if (StringUtils.isNotEmpty(spellCorrectedTerm)) {
+      if (isSpeculative()) {
+        knownSpellCorrections.put(phrase, spellCorrectedTerm);
+      }
+      if (speculation != null && spellCorrectedTerm.equals(speculation.params().getPhrase())) {
+        final Result<List<P>> speculativeResult = join(speculation.result());
+        adoptSpellCorrectedParams(searchParams, speculation.params());
+        return speculativeResult;
+      }
+      searchParams.setPhrase(spellCorrectedTerm);
+      // be careful to avoid recursion
+      searchParams.useSpellCorrection(false);
+      return searchFunction.apply(searchParams);
+    }
+
+    if (speculation != null) {
+      speculation.result().cancel(true);
+      if (CollectionUtils.isNotEmpty(result.getPayload())) {
+        knownSpellCorrections.remove(phrase);
       }
     }
     return result;
   }
 
+  /**
+   * @return the spell corrected phrase, if the search should be repeated with it, an empty string otherwise
+   */
+  private <P> String getRequiredSpellCorrection(final Result<List<P>> result, final SearchParams searchParams) {
+    if (searchParams.getRows() > 0 && CollectionUtils.isEmpty(result.getPayload()) && searchParams.useSpellCorrection()) {
+      return getSpellCorrection(result, searchParams);
+    }
+    return StringUtils.EMPTY;
+  }
+
+  private boolean isSpeculative() {
+    return spellCorrectionConfig != null && spellCorrectionConfig.isSpeculative();
+  }
+
+  private <P> Speculation<P> speculate(final SearchParams searchParams, final Function<SearchParams, CompletableFuture<Result<List<P>>>> asyncSearchFunction) {
+    if (!isSpeculative() || !searchParams.useSpellCorrection() || searchParams.getRows() <= 0 || StringUtils.isEmpty(searchParams.getPhrase())) {
+      return null;
+    }
+    final String spellCorrectedTerm = knownSpellCorrections.get(searchParams.getPhrase());
+    if (spellCorrectedTerm == null) {
+      return null;
+    }
+    final SearchParams speculativeParams = searchParams.toBuilder()
+        .withPhrase(spellCorrectedTerm)
+        .withUseSpellCorrection(false)
+        .build();
+    return new Speculation<>(speculativeParams, asyncSearchFunction.apply(speculativeParams));
+  }
+
+  private static <R> R join(final CompletableFuture<R> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw e;
+    }
+  }
+
+  /* the search updates its params (e.g. the highlighting information), so the speculative params are adopted */
+  private static void adoptSpellCorrectedParams(final SearchParams searchParams, final SearchParams spellCorrectedParams) {
+    searchParams.setPhrase(spellCorrectedParams.getPhrase());
+    searchParams.useSpellCorrection(false);
+    searchParams.setHighlightFields(spellCorrectedParams.getHighlightFields());
+    searchParams.setHighlightQuery(spellCorrectedParams.getHighlightQuery());
+    searchParams.setHighlightQueryType(spellCorrectedParams.getHighlightQueryType());
+  }
+
+  private record Speculation<P>(SearchParams params, CompletableFuture<Result<List<P>>> result) {}
+
   @Override
   public Map<String, Object> getTypeFilter() {
     return typeFilter;
@@ -91,8 +286,68 @@ public class BaseServiceImpl<T> implements BaseService<T> {
 
   @Override
   public MetaData findMetaData(final SearchParams searchParams) {
-    final QueryResponse response = search(searchParams);
-    return QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig);
+    applyDeadline(searchParams);
+    return findCached("metadata", searchParams, response -> QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig));
+  }
+
+  /**
+   * Performs a search and maps its response by using {@code extractor}. If a response cache is available, the mapped
+   * result is cached until the index changes
+   *
+   * @param namespace    distinguishes the results of different {@code extractor}s for the same {@code searchParams}
+   * @param searchParams the search params to use
+   * @param extractor    the function mapping the search's response
+   * @param <R>          the type of the mapped result
+   * @return the cached or mapped result
+   */
+  protected <R> R findCached(final String namespace, final SearchParams searchParams, final Function<QueryResponse, R> extractor) {
+    if (responseCache == null) {
+      return extractor.apply(search(searchParams));
+    }
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(searchParams, highlightConfig);
+    return responseCache.get(getEntityName() + '.' + namespace, solrParams, () -> extractor.apply(discoveryRepository.findByQuery(solrParams)));
+  }
+
+  /**
+   * Like {@link #findCached(String, SearchParams, Function)}, but the search is performed without blocking the calling
+   * thread
+   *
+   * @param namespace    distinguishes the results of different {@code extractor}s for the same {@code searchParams}
+   * @param searchParams the search params to use
+   * @param extractor    the function mapping the search's response
+   * @param <R>          the type of the mapped result
+   * @return a future of the cached or mapped result
+   */
+  protected <R> CompletableFuture<R> findCachedAsync(final String namespace, final SearchParams searchParams, final Function<QueryResponse, R> extractor) {
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(searchParams, highlightConfig);
+    /* the response is mapped on a virtual thread, so the solr client's threads are released as soon as possible */
+    final Supplier<CompletableFuture<R>> loader = () -> {
+      final CompletableFuture<QueryResponse> response = discoveryRepository.findByQueryAsync(solrParams);
+      return FutureHelper.cancelling(response.thenApplyAsync(extractor, searchExecutor), response);
+    };
+    if (responseCache == null) {
+      return loader.get();
+    }
+    return responseCache.getAsync(getEntityName() + '.' + namespace, solrParams, loader);
+  }
+
+  @Override
+  public void export(final SearchParams searchParams, final Consumer<List<T>> pageConsumer) {
+    String cursorMark = CursorMarkParams.CURSOR_MARK_START;
+    while (true) {
+      searchParams.setCursorMark(cursorMark);
+      final QueryResponse response = search(searchParams);
+      final List<T> page = QueryResponse2ResponseEntityConverter.extract(response, genericType);
+      if (!page.isEmpty()) {
+        pageConsumer.accept(page);
+      }
+      /* the cursor doesn't move anymore once all documents were returned */
+      final String nextCursorMark = response.getNextCursorMark();
+      if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+        return;
+      }
+      cursorMark = nextCursorMark;
+    }
   }
 
   protected QueryResponse search(final SearchParams searchParams) {
@@ -104,26 +359,27 @@ public class BaseServiceImpl<T> implements BaseService<T> {
    * Generates a filter query for the given {@code facetField} and {@code values}
    * @param facetField the field that the filter query should be applied to
    * @param values the values that the {@code facetField} should match1
-   * @return a map containing the generated filter query as its first entry
+   * @return a map containing the generated filter query as its first entry, its values are sorted, so the filter query
+   * doesn't depend on their order
    */
   public static Map<String, String> generateFilter(final FacetField facetField, final List<String> values) {
     if(CollectionUtils.isEmpty(values)) {
       return Collections.emptyMap();
     }
-    final String concatenated = values.stream().map(v -> String.format("\"%s\"", v)).collect(Collectors.joining(" OR "));
+    final String concatenated = values.stream().distinct().sorted().map(v -> String.format("\"%s\"", v)).collect(Collectors.joining(" OR "));
     return Map.of(String.format("%s:(%s)", facetField.getName(), concatenated), facetField.getName());
   }
 
   /**
    * Generates multiple filter queries for the given map of entries containing {@code facetField} and {@code values}
    * @param values a map within each entry represents the facetField and its associated values
-   * @return a map containing the generated filter queries
+   * @return a map containing the generated filter queries in sorted order
    */
   public static Map<String, String> generateFilters(final Map<FacetField, List<String>> values) {
     if(CollectionUtils.isEmpty(values.entrySet())) {
       return Collections.emptyMap();
     }
-    final Map<String, String> result = new HashMap<>();
+    final Map<String, String> result = new TreeMap<>();
 
     for(Map.Entry<FacetField, List<String>> entry : values.entrySet()) {
       result.putAll(generateFilter(entry.getKey(), entry.getValue()));
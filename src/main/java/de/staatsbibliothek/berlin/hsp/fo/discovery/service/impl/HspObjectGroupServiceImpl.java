@@ -24,23 +24,32 @@
  */
 package de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl;
 
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ObjectGroupConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ObjectGroupConfig.SearchMode;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObjectGroup;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.HspObjectGroupService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.Query2SolrQueryConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryParser;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.SearchParams2SolrParamsConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.FacetField;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.HspType;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FutureHelper;
 import org.apache.commons.collections4.CollectionUtils;
-import org.apache.commons.lang3.StringUtils;
 import org.apache.solr.client.solrj.response.QueryResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 import static de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams.QueryOperator.OR;
@@ -48,6 +57,13 @@ import static de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.Se
 @Service
 public class HspObjectGroupServiceImpl extends BaseServiceImpl<HspObjectGroup> implements HspObjectGroupService {
 
+  private static final List<String> MEMBER_TYPES = List.of(
+      HspType.HSP_DESCRIPTION.getValue(),
+      HspType.HSP_DESCRIPTION_RETRO.getValue(),
+      HspType.HSP_DIGITIZED.getValue());
+
+  private ObjectGroupConfig objectGroupConfig;
+
   public HspObjectGroupServiceImpl() {
     super(Map.of(FacetField.TYPE.getName(), List.of(
         HspType.HSP_OBJECT.getValue(),
@@ -56,6 +72,11 @@ public class HspObjectGroupServiceImpl extends BaseServiceImpl<HspObjectGroup> i
     ), HspObjectGroup.class);
   }
 
+  @Autowired
+  public void setObjectGroupConfig(final ObjectGroupConfig objectGroupConfig) {
+    this.objectGroupConfig = objectGroupConfig;
+  }
+
   private static Result<List<HspObjectGroup>> mergeResults(final Result<List<String>> resultWithFacets, final Result<List<HspObjectGroup>> resultWithGroupData) {
     final Map<String, HspObjectGroup> mappedResultData = mapById(resultWithGroupData.getPayload());
 
@@ -70,6 +91,7 @@ public class HspObjectGroupServiceImpl extends BaseServiceImpl<HspObjectGroup> i
         .toBuilder()
         .withHighlighting(Map.copyOf(resultWithGroupData.getMetadata()
             .getHighlighting()))
+        .withPartialResults(resultWithFacets.getMetadata().isPartialResults() || resultWithGroupData.getMetadata().isPartialResults())
         .build();
 
     return new Result<>(resultData, resultMetaData);
@@ -80,17 +102,19 @@ public class HspObjectGroupServiceImpl extends BaseServiceImpl<HspObjectGroup> i
         .collect(Collectors.toMap(HspObjectGroup::getGroupId, item -> item));
   }
 
-  public static SearchParams getGroupCompletionParamsBySearchParams(final SearchParams sourceParams, final Collection<String> groupIds) {
+  public static SearchParams getGroupCompletionParamsBySearchParams(final SearchParams sourceParams, final Collection<String> groupIds, final int memberLimit) {
     final String query = Query2SolrQueryConverter.createEmbeddedQueryWithQueryParser(QueryParser.EDISMAX, "group-id-search" + ":(" + String.join(" ", groupIds) + ")");
     return SearchParams.builder()
+        .withDeadline(sourceParams.getDeadline())
         .withGrouping(true)
+        .withGroupLimit(memberLimit)
         .withHighlight(sourceParams.isHighlight())
         .withHighlightFields(sourceParams.getHighlightFields())
         .withHighlightQuery(sourceParams.getHighlightQuery())
         .withHighlightQueryType(sourceParams.getHighlightQueryType())
         .withQuery(query)
         .withQueryOperator(OR)
-        .withRows(Integer.MAX_VALUE)
+        .withRows(groupIds.size())
         // ToDo original search fields need to be set for highlighting. Could be done somewhere else
         .withSearchFields(sourceParams.getSearchFields())
         .withStart(0)
@@ -105,30 +129,123 @@ public class HspObjectGroupServiceImpl extends BaseServiceImpl<HspObjectGroup> i
    */
   @Override
   public Result<List<HspObjectGroup>> find(final SearchParams searchParams) {
+    applyDeadline(searchParams);
+    if (isCollapseExpandMode()) {
+      return findExpanded(searchParams);
+    }
     final boolean useHighlighting = searchParams.isHighlight();
     searchParams.setHighlight(false);
-    Result<List<String>> result = findHspObjectGroupIds(searchParams);
-
-    if (searchParams.getRows() > 0 && CollectionUtils.isEmpty(result.getPayload()) && searchParams.useSpellCorrection()) {
-      final String spellCorrectedTerm = getSpellCorrection(result, searchParams);
-      if(StringUtils.isNotEmpty(spellCorrectedTerm)) {
-        searchParams.setPhrase(spellCorrectedTerm);
-        searchParams.useSpellCorrection(false);
-        result = findHspObjectGroupIds(searchParams);
-      }
-    }
+    final Result<List<String>> result = findWithSpellCorrection(searchParams, this::findHspObjectGroupIds, params -> findCachedAsync("ids", params, this::extractIdResult));
 
     if (CollectionUtils.isNotEmpty(result.getPayload())) {
       searchParams.setHighlight(useHighlighting);
-      final SearchParams compParams = getGroupCompletionParamsBySearchParams(searchParams, result.getPayload());
-      final QueryResponse response = search(compParams);
-      final List<HspObjectGroup> payload = QueryResponse2ResponseEntityConverter.getHSPObjectGroups(response);
-      final MetaData metaData = QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig);
-      return mergeResults(result, new Result<>(payload, metaData));
+      final SearchParams compParams = getGroupCompletionParamsBySearchParams(searchParams, result.getPayload(), getMemberLimit());
+      return mergeResults(result, extractGroupedResult(search(compParams)));
     }
     return new Result<>(List.of(), result.getMetadata());
   }
 
+  /**
+   * Like {@link #find(SearchParams)}, but the Solr requests are performed without blocking the calling thread. In
+   * two-phase mode, the search completing the groups is chained to the search for the group ids
+   *
+   * @param searchParams the search params to use
+   * @return a future of the {@link Result} containing the matching {@link HspObjectGroup}s
+   */
+  @Override
+  public CompletableFuture<Result<List<HspObjectGroup>>> findAsync(final SearchParams searchParams) {
+    applyDeadline(searchParams);
+    if (isCollapseExpandMode()) {
+      prepareExpanded(searchParams);
+      return findWithSpellCorrectionAsync(searchParams, params -> findCachedAsync("expanded", params, this::extractExpandedResult));
+    }
+    final boolean useHighlighting = searchParams.isHighlight();
+    searchParams.setHighlight(false);
+    final CompletableFuture<Result<List<String>>> ids = findWithSpellCorrectionAsync(searchParams, params -> findCachedAsync("ids", params, this::extractIdResult));
+    /* the search in progress, it's cancelled if the returned future is cancelled */
+    final AtomicReference<CompletableFuture<?>> current = new AtomicReference<>(ids);
+    final CompletableFuture<Result<List<HspObjectGroup>>> result = ids.thenCompose(idResult -> {
+      if (CollectionUtils.isEmpty(idResult.getPayload())) {
+        return CompletableFuture.completedFuture(new Result<>(List.of(), idResult.getMetadata()));
+      }
+      searchParams.setHighlight(useHighlighting);
+      final SearchParams compParams = getGroupCompletionParamsBySearchParams(searchParams, idResult.getPayload(), getMemberLimit());
+      final CompletableFuture<Result<List<HspObjectGroup>>> completion = findCachedAsync("completion", compParams, this::extractGroupedResult);
+      current.set(completion);
+      return completion.thenApply(groupResult -> mergeResults(idResult, groupResult));
+    });
+    return FutureHelper.onCancellation(result, () -> current.get().cancel(true));
+  }
+
+  private boolean isCollapseExpandMode() {
+    return objectGroupConfig != null && SearchMode.COLLAPSE_EXPAND.equals(objectGroupConfig.getSearchMode());
+  }
+
+  /**
+   * Queries solr for documents by collapsing the matching documents by their group id and expanding each group
+   * by its remaining members, so the groups are complete after a single request.
+   * In contrast to the two-phase search, only the group heads are highlighted
+   *
+   * @param searchParams the search params to use
+   * @return a {@link Result} containing the matching {@link HspObjectGroup}s
+   */
+  private Result<List<HspObjectGroup>> findExpanded(final SearchParams searchParams) {
+    prepareExpanded(searchParams);
+    return findWithSpellCorrection(searchParams, params -> findCached("expanded", params, this::extractExpandedResult),
+        params -> findCachedAsync("expanded", params, this::extractExpandedResult));
+  }
+
+  private void prepareExpanded(final SearchParams searchParams) {
+    searchParams.setCollapse(true);
+    searchParams.setExpand(true);
+    searchParams.setGroupLimit(getMemberLimit());
+  }
+
+  private Result<List<HspObjectGroup>> extractGroupedResult(final QueryResponse response) {
+    final List<HspObjectGroup> payload = QueryResponse2ResponseEntityConverter.getHSPObjectGroups(response);
+    final MetaData metaData = QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig);
+    return new Result<>(payload, metaData);
+  }
+
+  private Result<List<HspObjectGroup>> extractExpandedResult(final QueryResponse response) {
+    final List<HspObjectGroup> payload = QueryResponse2ResponseEntityConverter.getExpandedHspObjectGroups(response);
+    final MetaData metaData = QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig);
+    return new Result<>(payload, metaData);
+  }
+
+  @Override
+  public Result<HspObjectGroup> findMembers(final String groupId, final List<String> types, final long start, final long rows) {
+    final List<String> memberTypes = CollectionUtils.isEmpty(types) ? MEMBER_TYPES : types;
+    memberTypes.stream()
+        .filter(type -> !MEMBER_TYPES.contains(type))
+        .findFirst()
+        .ifPresent(type -> {
+          throw ExceptionFactory.getException(ExceptionType.INVALID_PARAM, String.format("%s is not a valid member type.", type));
+        });
+    if (start < 0 || rows < 1 || rows > getMemberLimit()) {
+      throw ExceptionFactory.getException(ExceptionType.INVALID_PARAM, String.format("The start has to be positive and the rows have to be between 1 and %d.", getMemberLimit()));
+    }
+
+    /* the members are matched by a non-scored filter on the group id, sorted by their id for a stable paging */
+    final Map<String, String> filterQueries = new TreeMap<>(generateFilter(FacetField.TYPE, memberTypes));
+    filterQueries.put(String.format("{!term f=%s}%s", FacetField.GROUP_ID.getName(), groupId), "");
+    final SearchParams params = SearchParams.builder()
+        .withFilterQueries(filterQueries)
+        .withRows(rows)
+        .withSearchFields(List.of("group-id-search"))
+        .withSortPhrase(SearchParams2SolrParamsConverter.UNIQUE_KEY_SORT)
+        .withStart(start)
+        .build();
+    applyDeadline(params);
+    final QueryResponse response = search(params);
+    final HspObjectGroup payload = QueryResponse2ResponseEntityConverter.getHspObjectGroupMembers(response);
+    final MetaData metaData = QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig);
+    return new Result<>(payload, metaData);
+  }
+
+  private int getMemberLimit() {
+    return objectGroupConfig != null ? objectGroupConfig.getMemberLimit() : SearchParams2SolrParamsConverter.DEFAULT_GROUP_LIMIT;
+  }
 
   /**
    * Queries solr for documents
@@ -138,7 +255,10 @@ public class HspObjectGroupServiceImpl extends BaseServiceImpl<HspObjectGroup> i
    */
   @Override
   public Result<List<String>> findHspObjectGroupIds(final SearchParams searchParams) {
-    final QueryResponse response = search(searchParams);
+    return extractIdResult(search(searchParams));
+  }
+
+  private Result<List<String>> extractIdResult(final QueryResponse response) {
     final List<String> payload = QueryResponse2ResponseEntityConverter.getHspObjectGroupIds(response);
     final MetaData metaData = QueryResponse2ResponseEntityConverter.extractMetadata(response, highlightConfig);
 
@@ -1,11 +1,13 @@
 package de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl;
 
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.InfoFieldsConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Field;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.FieldType;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl.FieldInformation;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl.FieldTypeInformation;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.InfoService;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.cache.RefreshingSnapshot;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.EnumInformation;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.EnumsConfig;
@@ -13,11 +15,15 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
 import org.apache.solr.client.solrj.response.SolrResponseBase;
 import org.apache.solr.client.solrj.response.schema.SchemaResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,6 +31,8 @@ public class InfoServiceImpl implements InfoService {
   protected DiscoveryRepository discoveryRepository;
   protected FieldProvider fieldProvider;
   private static final String FIELD_TYPE_YEAR = "year";
+  private InfoFieldsConfig infoFieldsConfig = new InfoFieldsConfig();
+  private final RefreshingSnapshot<List<Field>> fields = new RefreshingSnapshot<>("field information", this::loadFields, () -> infoFieldsConfig.getRefreshInterval());
 
   @Autowired
   public InfoServiceImpl(final DiscoveryRepository discoveryRepository, final FieldProvider fieldProvider) {
@@ -32,18 +40,37 @@ public class InfoServiceImpl implements InfoService {
     this.fieldProvider = fieldProvider;
   }
 
+  @Autowired
+  public void setInfoFieldsConfig(final InfoFieldsConfig infoFieldsConfig) {
+    this.infoFieldsConfig = infoFieldsConfig;
+  }
+
   /**
-   * Get all available search fields, including its type
-   * @return a {@link List} containing the {@link Field}s
+   * Loads the field information before the application is ready to serve requests. If Solr is not available, the
+   * information is loaded on first access instead
+   */
+  @EventListener(ApplicationStartedEvent.class)
+  public void warmUp() {
+    fields.warm();
+  }
+
+  /**
+   * Get all available search fields, including its type. The fields are cached and reloaded in the background
+   * periodically
+   * @return an unmodifiable {@link List} containing the {@link Field}s
    */
   @Override
   public List<Field> getFields() {
+    return fields.get();
+  }
+
+  private List<Field> loadFields() {
     List<FieldInformation> fieldInformationList = getFieldInformation();
     fieldInformationList = filterFieldInformation(fieldInformationList);
     final List<FieldTypeInformation> fieldTypeInformationList = getFieldTypeInformation();
     final EnumsConfig enumsConfig = getEnumInformation();
 
-    return mergeFieldsAndFieldTypes(fieldInformationList, fieldTypeInformationList, enumsConfig);
+    return List.copyOf(mergeFieldsAndFieldTypes(fieldInformationList, fieldTypeInformationList, enumsConfig));
   }
 
   /**
@@ -52,9 +79,10 @@ public class InfoServiceImpl implements InfoService {
    * @return a {link List} containing the filtered {@link FieldInformation} items
    */
   private List<FieldInformation> filterFieldInformation(final List<FieldInformation> fieldInformationList) {
+    final Set<String> fieldNames = new HashSet<>(fieldProvider.getFieldNames());
     return fieldInformationList.stream()
         .filter(fi -> fi.getName().endsWith(FieldProvider.SUFFIX_UNSTEMMED))
-        .filter(fti -> fieldProvider.getFieldNames().contains(fti.getName()))
+        .filter(fti -> fieldNames.contains(fti.getName()))
         .toList();
   }
 
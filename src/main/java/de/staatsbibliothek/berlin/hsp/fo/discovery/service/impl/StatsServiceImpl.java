@@ -0,0 +1,116 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.InfoStatsConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.InfoStats;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.StatsService;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.cache.RefreshingSnapshot;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.type.FacetField;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.type.HspType;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.MapHelper;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter.extractJsonFacetBuckets;
+import static de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter.extractJsonFacetCounts;
+import static de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter.extractJsonFacetsFromQueryResponse;
+
+/**
+ * Computes the {@link InfoStats} by a single request, using nested terms facets of the JSON Facet API
+ * ({@code type-facet} → {@code desc-status-facet} → {@code repository-id-facet}).
+ * The stats are cached as an immutable snapshot. Once the snapshot is older than the configured refresh interval, it's
+ * refreshed in the background, while the outdated snapshot is served until the refresh is finished
+ */
+@Service
+public class StatsServiceImpl implements StatsService {
+
+  private static final String FACET_TYPES = "types";
+  private static final String FACET_STATUS = "status";
+  private static final String FACET_REPOSITORIES = "repositories";
+  private static final String STATUS_EXTERN = "extern";
+  private static final String STATUS_INTERN = "intern";
+  private static final List<HspType> TYPES = List.of(HspType.HSP_OBJECT, HspType.HSP_DIGITIZED, HspType.HSP_CATALOG, HspType.HSP_DESCRIPTION, HspType.HSP_DESCRIPTION_RETRO);
+
+  private static final String REPOSITORY_FACET = String.format("{\"type\":\"terms\",\"field\":\"%s\",\"limit\":-1,\"missing\":true}", FacetField.REPOSITORY_ID.getName());
+  private static final String JSON_FACET = String.format("{\"%s\":{\"type\":\"terms\",\"field\":\"%s\",\"limit\":-1,\"facet\":{\"%s\":%s,\"%s\":{\"type\":\"terms\",\"field\":\"%s\",\"limit\":-1,\"facet\":{\"%s\":%s}}}}}",
+      FACET_TYPES, FacetField.TYPE.getName(), FACET_REPOSITORIES, REPOSITORY_FACET, FACET_STATUS, FacetField.DESCRIPTION_STATUS.getName(), FACET_REPOSITORIES, REPOSITORY_FACET);
+
+  private final DiscoveryRepository discoveryRepository;
+  private InfoStatsConfig infoStatsConfig = new InfoStatsConfig();
+  private final RefreshingSnapshot<InfoStats> stats = new RefreshingSnapshot<>("stats", this::computeStats, () -> infoStatsConfig.getRefreshInterval());
+
+  @Autowired
+  public StatsServiceImpl(final DiscoveryRepository discoveryRepository) {
+    this.discoveryRepository = discoveryRepository;
+  }
+
+  @Autowired
+  public void setInfoStatsConfig(final InfoStatsConfig infoStatsConfig) {
+    this.infoStatsConfig = infoStatsConfig;
+  }
+
+  @Override
+  public InfoStats getStats() {
+    return stats.get();
+  }
+
+  private InfoStats computeStats() {
+    final ModifiableSolrParams params = new ModifiableSolrParams();
+    params.set(CommonParams.Q, "*:*");
+    params.set(CommonParams.ROWS, 0);
+    BaseServiceImpl.generateFilter(FacetField.TYPE, TYPES.stream().map(HspType::getValue).toList())
+        .keySet()
+        .forEach(filter -> params.add(CommonParams.FQ, filter));
+    params.set("json.facet", JSON_FACET);
+
+    final QueryResponse queryResponse = discoveryRepository.findByQuery(params);
+    final Map<String, NamedList<?>> typeBuckets = extractJsonFacetBuckets(extractJsonFacetsFromQueryResponse(queryResponse), FACET_TYPES);
+
+    final Map<String, Long> kodCounts = getRepositoryCounts(typeBuckets.get(HspType.HSP_OBJECT.getValue()));
+    final Map<String, Long> digitizedCounts = getRepositoryCounts(typeBuckets.get(HspType.HSP_DIGITIZED.getValue()));
+    final Map<String, Long> catalogCounts = getRepositoryCounts(typeBuckets.get(HspType.HSP_CATALOG.getValue()));
+    final Map<String, Long> retroDescriptionCounts = getRepositoryCounts(typeBuckets.get(HspType.HSP_DESCRIPTION_RETRO.getValue()));
+    final Map<String, NamedList<?>> statusBuckets = extractJsonFacetBuckets(typeBuckets.get(HspType.HSP_DESCRIPTION.getValue()), FACET_STATUS);
+    final Map<String, Long> descriptionExternalCounts = getRepositoryCounts(statusBuckets.get(STATUS_EXTERN));
+    final Map<String, Long> descriptionInternalCounts = getRepositoryCounts(statusBuckets.get(STATUS_INTERN));
+    final Map<String, Long> mergedDescriptionInstitutions = MapHelper.mergeMaps(retroDescriptionCounts, descriptionExternalCounts, descriptionInternalCounts);
+
+    return InfoStats.builder()
+        .withKod(InfoStats.BaseStats.builder()
+            .withInstitution(kodCounts)
+            .withAll(getSum(kodCounts))
+            .build())
+        .withDigitized(InfoStats.BaseStats.builder()
+            .withInstitution(digitizedCounts)
+            .withAll(getSum(digitizedCounts))
+            .build())
+        .withCatalog(InfoStats.BaseStats.builder()
+            .withInstitution(catalogCounts)
+            .withAll(getSum(catalogCounts))
+            .build())
+        .withDescription(InfoStats.DescriptionStats.builder()
+            .withAll(getSum(mergedDescriptionInstitutions))
+            .withRetro(getSum(retroDescriptionCounts))
+            .withExtern(getSum(descriptionExternalCounts))
+            .withIntern(getSum(descriptionInternalCounts))
+            .withInstitution(Collections.unmodifiableMap(mergedDescriptionInstitutions))
+            .build())
+        .build();
+  }
+
+  private static Map<String, Long> getRepositoryCounts(final NamedList<?> bucket) {
+    return Collections.unmodifiableMap(extractJsonFacetCounts(bucket, FACET_REPOSITORIES));
+  }
+
+  private static long getSum(final Map<String, Long> counts) {
+    return counts.values().stream().mapToLong(l -> l).sum();
+  }
+}
@@ -1,6 +1,7 @@
 package de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl;
 
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.TeiDocument;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.springframework.stereotype.Service;
@@ -20,4 +21,16 @@ public class TEIService extends BaseServiceImpl<String> {
     final QueryResponse response = search(searchParams);
     return new Result<>(QueryResponse2ResponseEntityConverter.extractTeiDocumentsFromSolrResponse(response));
   }
+
+  /**
+   * Like {@link #find(SearchParams)}, but the documents' modification dates are returned as well, if requested by the
+   * display fields
+   *
+   * @param searchParams the search params to use
+   * @return the TEI documents found
+   */
+  public Result<List<TeiDocument>> findTeiDocuments(final SearchParams searchParams) {
+    final QueryResponse response = search(searchParams);
+    return new Result<>(QueryResponse2ResponseEntityConverter.extractTeiDocuments(response));
+  }
 }
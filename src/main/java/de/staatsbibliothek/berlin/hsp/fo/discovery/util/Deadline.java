@@ -0,0 +1,31 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.util;
+
+import java.time.Duration;
+
+/**
+ * The point in time a search has to be finished by. It's passed along with the search params, so the time left
+ * shrinks across the consecutive Solr requests of a search, e.g. the spell corrected one
+ *
+ * @param expiresAt the point in time, measured by {@link System#nanoTime()}
+ */
+public record Deadline(long expiresAt) {
+
+  /**
+   * @param budget the time the search may take
+   * @return the deadline that is reached once the {@code budget} is used up
+   */
+  public static Deadline after(final Duration budget) {
+    return new Deadline(System.nanoTime() + budget.toNanos());
+  }
+
+  /**
+   * @return the time left, {@link Duration#ZERO} if the deadline is reached
+   */
+  public Duration remaining() {
+    return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+  }
+
+  public boolean isExpired() {
+    return expiresAt - System.nanoTime() <= 0;
+  }
+}
@@ -26,6 +26,33 @@ public class FieldProvider {
   private final Map<String, List<String>> groups;
 
   private static final String FIELD_GROUP_ALL = "FIELD-GROUP-ALL";
+  private static final Pattern BOOSTING_FACTOR_PATTERN = Pattern.compile("\\^\\d+$");
+  private static final Pattern OPTIONAL_SUFFIX_PATTERN = Pattern.compile("^([a-z]+(?:-[a-z]+){0,5}-search).*");
+
+  /* the following are resolved once, because the configuration doesn't change and they are needed on every search */
+  /* the boosting suffixes, e.g. '^10', by field names without boosting factors */
+  private final Map<String, String> boostingSuffixes;
+  /* the boosted names of each variant by their search field's name */
+  private final Map<Variant, Map<String, String>> variantNames = new EnumMap<>(Variant.class);
+  /* the boosted names of each variant by the field names of a search group */
+  private final Map<Variant, Map<List<String>, List<String>>> groupVariantNames = new EnumMap<>(Variant.class);
+  private final List<String> fieldNames;
+
+  /**
+   * The variants of a search field, each is indexed differently
+   */
+  private enum Variant {
+    BASIC(SearchField::getBasic),
+    EXACT(SearchField::getExact),
+    EXACT_NO_PUNCTUATION(SearchField::getExactNoPunctuation),
+    STEMMED(SearchField::getStemmed);
+
+    private final Function<SearchField, Field> getter;
+
+    Variant(final Function<SearchField, Field> getter) {
+      this.getter = getter;
+    }
+  }
 
   @Autowired
   public FieldProvider(final HspConfig hspConfig) {
@@ -33,6 +60,30 @@ public class FieldProvider {
     this.groups = hspConfig.getGroups();
     this.fields = createBaseFieldsMap(fields);
     this.boostings = createBoostingMap(fields);
+    this.boostingSuffixes = new HashMap<>();
+    this.boostings.forEach((name, boosting) -> boostingSuffixes.put(name, "^" + boosting));
+    this.fieldNames = this.fields.values().stream()
+        .map(SearchField::getBasic)
+        .filter(Objects::nonNull)
+        .map(Field::getName)
+        .toList();
+
+    for (Variant variant : Variant.values()) {
+      final Map<String, String> names = new HashMap<>();
+      this.fields.forEach((name, searchField) -> {
+        final Field field = variant.getter.apply(searchField);
+        if (field != null) {
+          names.put(name, getFieldNameWithBoosting(field.getName()));
+        }
+      });
+      variantNames.put(variant, names);
+
+      final Map<List<String>, List<String>> groupNames = new HashMap<>();
+      if (this.groups != null) {
+        this.groups.values().forEach(group -> groupNames.put(List.copyOf(group), resolveNames(group, variant)));
+      }
+      groupVariantNames.put(variant, groupNames);
+    }
   }
 
   private static Map<String, Long> createBoostingMap(final List<String> fieldNames) {
@@ -94,7 +145,7 @@ public class FieldProvider {
    */
   public static String removeBoostingFactor(final String fieldName) {
     if (fieldName != null) {
-      return fieldName.replaceAll("\\^\\d+$", "");
+      return fieldName.indexOf('^') < 0 ? fieldName : BOOSTING_FACTOR_PATTERN.matcher(fieldName).replaceAll("");
     }
     return null;
   }
@@ -117,10 +168,7 @@ public class FieldProvider {
    * @return the field name plus boosting, if there is any
    */
   public String getBoosting(final String fieldName) {
-    if(boostings.containsKey(fieldName) && boostings.get(fieldName) != null) {
-      return String.format("^%s", boostings.get(fieldName));
-    } else
-      return StringUtils.EMPTY;
+    return fieldName == null ? StringUtils.EMPTY : boostingSuffixes.getOrDefault(fieldName, StringUtils.EMPTY);
   }
 
   /**
@@ -129,7 +177,8 @@ public class FieldProvider {
    * @return the field name plus boosting, if there is any
    */
   public String getFieldNameWithBoosting(final String fieldName) {
-    return String.format("%s%s", fieldName, getBoosting(fieldName));
+    final String boosting = getBoosting(fieldName);
+    return boosting.isEmpty() ? String.valueOf(fieldName) : fieldName + boosting;
   }
 
   /**
@@ -138,12 +187,7 @@ public class FieldProvider {
    * @return an {@code Optional} containing the field name for basic searches, {@code Optional.empty} if there is none
    */
   public Optional<String> getBasicName(final String fieldName) {
-    final Field basicField = fields.get(fieldName).getBasic();
-    if (basicField != null) {
-      return Optional.of(getFieldNameWithBoosting(basicField.getName()));
-    } else {
-      return Optional.empty();
-    }
+    return Optional.ofNullable(variantNames.get(Variant.BASIC).get(fieldName));
   }
 
   /**
@@ -153,7 +197,7 @@ public class FieldProvider {
    * @return a list containing the basic field names
    */
   public List<String> getBasicNames(final List<String> fieldNames) {
-    return getNames(fieldNames, this::getBasicName);
+    return getNames(fieldNames, Variant.BASIC);
   }
 
   /**
@@ -162,12 +206,7 @@ public class FieldProvider {
    * @return an {@code Optional} containing the field name for exact searches, {@code Optional.empty} if there is none
    */
   public Optional<String> getExactName(final String fieldName) {
-    final Field exactField = fields.get(fieldName).getExact();
-    if (exactField != null) {
-      return Optional.of(getFieldNameWithBoosting(exactField.getName()));
-    } else {
-      return Optional.empty();
-    }
+    return Optional.ofNullable(variantNames.get(Variant.EXACT).get(fieldName));
   }
 
   /**
@@ -177,7 +216,7 @@ public class FieldProvider {
    * @return a list containing the exact field names
    */
   public List<String> getExactNames(final List<String> fieldNames) {
-    return getNames(fieldNames, this::getExactName);
+    return getNames(fieldNames, Variant.EXACT);
   }
 
   /**
@@ -186,12 +225,7 @@ public class FieldProvider {
    * @return an {@code Optional} containing the field name for stemmed searches, {@code Optional.empty} if there is none
    */
   public Optional<String> getStemmedName(final String fieldName) {
-    final Field stemmedField = fields.get(fieldName).getStemmed();
-    if (stemmedField != null) {
-      return Optional.of(getFieldNameWithBoosting(stemmedField.getName()));
-    } else {
-      return Optional.empty();
-    }
+    return Optional.ofNullable(variantNames.get(Variant.STEMMED).get(fieldName));
   }
 
   /**
@@ -201,7 +235,7 @@ public class FieldProvider {
    * @return a list containing the exact field names
    */
   public List<String> getStemmedNames(final List<String> fieldNames) {
-    return getNames(fieldNames, this::getStemmedName);
+    return getNames(fieldNames, Variant.STEMMED);
   }
 
   /**
@@ -210,12 +244,7 @@ public class FieldProvider {
    * @return an {@code Optional} containing the field name for stemmed searches, {@code Optional.empty} if there is none
    */
   public Optional<String> getExactNoPunctuationName(final String fieldName) {
-    final Field stemmedField = fields.get(fieldName).getExactNoPunctuation();
-    if (stemmedField != null) {
-      return Optional.of(getFieldNameWithBoosting(stemmedField.getName()));
-    } else {
-      return Optional.empty();
-    }
+    return Optional.ofNullable(variantNames.get(Variant.EXACT_NO_PUNCTUATION).get(fieldName));
   }
 
   /**
@@ -225,16 +254,25 @@ public class FieldProvider {
    * @return a list containing the exact field names
    */
   public List<String> getExactNoPunctuationNames(final List<String> fieldNames) {
-    return getNames(fieldNames, this::getExactNoPunctuationName);
+    return getNames(fieldNames, Variant.EXACT_NO_PUNCTUATION);
   }
 
-  private List<String> getNames(final List<String> fieldNames, Function<String, Optional<String>> mapper) {
-    return fieldNames.stream()
-        .filter(fields::containsKey)
-        .map(mapper)
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .collect(Collectors.toList());
+  /* the names of a search group are resolved already, others are resolved on each call */
+  private List<String> getNames(final List<String> fieldNames, final Variant variant) {
+    final List<String> groupNames = groupVariantNames.get(variant).get(fieldNames);
+    return groupNames != null ? groupNames : resolveNames(fieldNames, variant);
+  }
+
+  private List<String> resolveNames(final List<String> fieldNames, final Variant variant) {
+    final Map<String, String> names = variantNames.get(variant);
+    final List<String> result = new ArrayList<>(fieldNames.size());
+    for (String fieldName : fieldNames) {
+      final String name = names.get(fieldName);
+      if (name != null) {
+        result.add(name);
+      }
+    }
+    return Collections.unmodifiableList(result);
   }
 
   /**
@@ -242,11 +280,7 @@ public class FieldProvider {
    * @return a list containing all base field names
    */
   public List<String> getFieldNames() {
-    return this.fields.values().stream()
-        .map(SearchField::getBasic)
-        .filter(Objects::nonNull)
-        .map(Field::getName)
-        .collect(Collectors.toList());
+    return fieldNames;
   }
 
   /**
@@ -281,8 +315,7 @@ public class FieldProvider {
    * @return the fieldname without any character after '-search'
    */
   public static String removeOptionalSuffix(final String fieldName) {
-    final Pattern pattern = Pattern.compile("^([a-z]+(?:-[a-z]+){0,5}-search).*");
-    Matcher m = pattern.matcher(fieldName);
+    Matcher m = OPTIONAL_SUFFIX_PATTERN.matcher(fieldName);
     if(m.matches()) {
       return m.group(1);
     }
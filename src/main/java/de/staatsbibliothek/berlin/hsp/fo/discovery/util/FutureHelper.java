@@ -0,0 +1,48 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+
+public class FutureHelper {
+
+  private FutureHelper() {}
+
+  /**
+   * Cancels {@code source} once {@code derived} is cancelled. A future derived from another one, e.g. by
+   * {@link CompletableFuture#thenApply}, doesn't cancel its source on its own, so an abandoned Solr request would keep
+   * running
+   *
+   * @param derived the future derived from {@code source}
+   * @param source  the future to cancel along with {@code derived}
+   * @return {@code derived}
+   * @param <R> the type of the derived future's result
+   */
+  public static <R> CompletableFuture<R> cancelling(final CompletableFuture<R> derived, final Future<?> source) {
+    return onCancellation(derived, () -> source.cancel(true));
+  }
+
+  /**
+   * Runs {@code action} once {@code future} is cancelled
+   *
+   * @param future the future to observe
+   * @param action the action to run on cancellation
+   * @return {@code future}
+   * @param <R> the type of the future's result
+   */
+  public static <R> CompletableFuture<R> onCancellation(final CompletableFuture<R> future, final Runnable action) {
+    future.whenComplete((result, ex) -> {
+      if (future.isCancelled()) {
+        action.run();
+      }
+    });
+    return future;
+  }
+
+  /**
+   * @return the cause of a {@link CompletionException}, the given throwable otherwise
+   */
+  public static Throwable unwrap(final Throwable throwable) {
+    return throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable;
+  }
+}
@@ -0,0 +1,41 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.util;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.SearchParams2SolrParamsConverter;
+import org.apache.solr.common.params.SolrParams;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class SolrParamsHelper {
+
+  /* the time left of a search differs on every request, but doesn't change its result */
+  private static final Set<String> IGNORED_PARAMS = Set.of(SearchParams2SolrParamsConverter.FIELD_NAME_TIME_ALLOWED,
+      SearchParams2SolrParamsConverter.FIELD_NAME_CPU_ALLOWED);
+
+  private SolrParamsHelper() {}
+
+  /**
+   * Builds a key from the given {@code solrParams} that doesn't depend on the order the params were added in. Params
+   * limiting the time of a search are left out
+   *
+   * @param solrParams the params to build the key from
+   * @return the key
+   */
+  public static String toCanonicalString(final SolrParams solrParams) {
+    final List<String> names = new ArrayList<>();
+    solrParams.getParameterNamesIterator().forEachRemaining(names::add);
+    names.sort(null);
+
+    final StringBuilder builder = new StringBuilder();
+    for (String name : names) {
+      if (IGNORED_PARAMS.contains(name)) {
+        continue;
+      }
+      for (String value : solrParams.getParams(name)) {
+        builder.append(name).append('=').append(value).append('\0');
+      }
+    }
+    return builder.toString();
+  }
+}
@@ -3,12 +3,16 @@ package de.staatsbibliothek.berlin.hsp.fo.discovery.util;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public class StringHelper {
 
-  private static final String DIVIDER_PATTERN = "[\\s,.;\\t\\n\\(\\)]+";
+  /* lookup table for characters dividing words, i.e. whitespaces, ',', '.', ';', '(' and ')' */
+  private static final boolean[] DIVIDERS = new boolean[128];
+
+  static {
+    for (char c : " \t\n\u000B\f\r,.;()".toCharArray()) {
+      DIVIDERS[c] = true;
+    }
+  }
 
   private StringHelper() {}
 
@@ -24,7 +28,7 @@ public class StringHelper {
     if(start == 0) {
       return 0;
     }
-    return firstIndexOf(string, DIVIDER_PATTERN, start, end);
+    return firstIndexOfWord(string, start, end);
   }
 
   /**
@@ -39,30 +43,46 @@ public class StringHelper {
     if(end >= string.length()) {
       return string.length();
     }
-    return lastIndexOf(string, DIVIDER_PATTERN, start, end);
+    return lastIndexOfDivider(string, start, end);
   }
 
-  private static int firstIndexOf(final String string, final String patternStr, final int start, int end) {
+  private static boolean isDivider(final char c) {
+    return c < DIVIDERS.length && DIVIDERS[c];
+  }
+
+  /**
+   * @return the position following the first sequence of dividing characters within [{@code start}, {@code end}),
+   * {@code end} if there's no such sequence or it reaches up to {@code end}
+   */
+  private static int firstIndexOfWord(final String string, final int start, int end) {
     end = Math.min(string.length(), end);
-    final Matcher matcher = Pattern.compile(patternStr).matcher(string).region(start, end);
-    if(matcher.find() && matcher.end() < end) {
-      return matcher.end();
+    int i = start;
+    while (i < end && !isDivider(string.charAt(i))) {
+      i++;
+    }
+    while (i < end && isDivider(string.charAt(i))) {
+      i++;
     }
-    return end;
+    return i;
   }
 
-  public static int lastIndexOf(final String string, final String patternStr, final int start, int end) {
+  /**
+   * @return the start position of the last sequence of dividing characters within [{@code start}, {@code end}),
+   * {@code end} if there's no such sequence
+   */
+  private static int lastIndexOfDivider(final String string, final int start, int end) {
     end = Math.min(string.length(), end);
-    final Matcher matcher = Pattern.compile(patternStr).matcher(string).region(start, end);
-    int result = end;
-    while(matcher.find()) {
-      if(matcher.start() < end) {
-        result = matcher.start();
-      } else {
-        break;
-      }
+    int i = end - 1;
+    while (i >= start && !isDivider(string.charAt(i))) {
+      i--;
+    }
+    if (i < start) {
+      return end;
+    }
+    while (i > start && isDivider(string.charAt(i - 1))) {
+      i--;
     }
-    return result;
+    return i;
   }
 
   public static boolean isText(final String argument) {
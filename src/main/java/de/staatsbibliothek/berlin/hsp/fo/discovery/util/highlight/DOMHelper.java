@@ -10,7 +10,7 @@ public class DOMHelper {
    * @return the opening tag
    */
   public static String getOpeningTag(final String tagName) {
-    return String.format("<%s>", tagName);
+    return "<" + tagName + ">";
   }
 
   /**
@@ -20,7 +20,7 @@ public class DOMHelper {
    * @return the closing tag
    */
   public static String getClosingTag(final String tagName) {
-    return String.format("</%s>", tagName);
+    return "</" + tagName + ">";
   }
 
   /**
@@ -31,6 +31,6 @@ public class DOMHelper {
    * @return the wrapped text
    */
   public static String wrapWithTag(final String text, final String tagName) {
-    return String.format("<%1$s>%2$s</%1$s>", tagName, text);
+    return getOpeningTag(tagName) + text + getClosingTag(tagName);
   }
 }
@@ -18,6 +18,18 @@ public class FragmentHelper {
    */
   public static String[] fragmentHighlightInformation(final String highlightInformation, final String tagName, final int padding) {
     final Interval[] highlightPositions = HighlightHelper.gatherHighlightPositions(highlightInformation, tagName, false);
+
+    return fragment(highlightInformation, highlightPositions, padding);
+  }
+
+  /**
+   * Fragments the given {@code highlight information} around the given highlight positions
+   * @param highlightInformation the highlight informtation to fragment
+   * @param highlightPositions the positions of the highlighted terms, including their tags
+   * @param padding the padding that should be used to fill up the highlight information with adjacent words
+   * @return an {@code Array} containing the fragments
+   */
+  static String[] fragment(final String highlightInformation, final Interval[] highlightPositions, final int padding) {
     final Interval[] fragmentPositions = FragmentHelper.calculateHighlightPositionWithPadding(highlightInformation, highlightPositions, padding);
 
     return fragmentString(highlightInformation, fragmentPositions);
@@ -6,13 +6,9 @@ import org.apache.commons.lang3.ArrayUtils;
 import java.util.*;
 import java.util.function.BiPredicate;
 import java.util.function.BinaryOperator;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class HighlightHelper {
 
-  private static final Map<String, Pattern> patternCache = new HashMap<>();
-
   private HighlightHelper() {}
 
   /**
@@ -26,13 +22,13 @@ public class HighlightHelper {
    * @return the html containing the merged elements
    */
   public static String mergeContiguousElements(final String html, final String tagName) {
-    Interval[] intervals;
-    intervals = gatherHighlightPositions(html, tagName, true);
-    intervals = mergeIntervals(intervals);
-
-    final String contentWithoutHighlighting = removeHighlighting(html, tagName);
+    final HighlightScanner scanner = HighlightScanner.scan(html, tagName);
+    if (scanner.size() < 2) {
+      return html;
+    }
+    final Interval[] intervals = mergeIntervals(scanner.getIntervals());
 
-    return addHighlighting(contentWithoutHighlighting, tagName, intervals);
+    return addHighlighting(scanner.getText(), tagName, intervals);
   }
 
   /**
@@ -59,24 +55,11 @@ public class HighlightHelper {
    * @return the merged highlight information. If one of the highlight information is empty, the other one is returned. If both are empty, an empty string is returned
    */
   private static String mergeHighlightItem(final String highlightItem, final String anotherHighlightItem, final String tagName) {
-    final Interval[] highlightIntervals = determineAndMergeIntervals(highlightItem, anotherHighlightItem, tagName);
-    final String contentWithoutHL = removeHighlighting(highlightItem, tagName);
-
-    return addHighlighting(contentWithoutHL, tagName, highlightIntervals);
-  }
-
-  /**
-   * Determines and merges the highlight intervals of two highlight items
-   * @param highlightItem the first highlight item
-   * @param anotherHighlightItem the second highlight item
-   * @param tagName the tag's name that is used for wrapping the highlighted information
-   * @return
-   */
-  private static Interval[] determineAndMergeIntervals(final String highlightItem, final String anotherHighlightItem, final String tagName) {
-    final Interval[] firstIntervals = gatherHighlightPositions(highlightItem, tagName, true);
-    final Interval[] secondIntervals = gatherHighlightPositions(anotherHighlightItem, tagName, true);
+    final HighlightScanner scanner = HighlightScanner.scan(highlightItem, tagName);
+    final HighlightScanner anotherScanner = HighlightScanner.scan(anotherHighlightItem, tagName);
+    final Interval[] highlightIntervals = mergeIntervals(ArrayUtils.addAll(scanner.getIntervals(), anotherScanner.getIntervals()));
 
-    return mergeIntervals(ArrayUtils.addAll(firstIntervals, secondIntervals));
+    return addHighlighting(scanner.getText(), tagName, highlightIntervals);
   }
 
   /**
@@ -89,42 +72,8 @@ public class HighlightHelper {
    * @return the intervals of all found segments
    */
   static Interval[] gatherHighlightPositions(final String highlightedText, final String tagName, final boolean ignoreTags) {
-    final Matcher matcher = getPattern(tagName).matcher(highlightedText);
-    int currPointer = 0;
-    final int openingTagSize = DOMHelper.getOpeningTag(tagName).length();
-    final int closingTagSize = DOMHelper.getClosingTag(tagName).length();
-    final int totalTagSize = openingTagSize + closingTagSize;
-    final List<Interval> result = new ArrayList<>();
-
-    /* when matching groups, the first group only contains the matching group's content,
-      while the second group contains the whole pattern (i.e. the highlighting tags) */
-    while(matcher.find()) {
-      int start;
-      int end;
-      /* when ignoring tags (i.e. its length) all previous tags needs to be subtracted */
-      if(ignoreTags) {
-        start = matcher.start(0) - (currPointer * totalTagSize);
-        end = matcher.end(0)  - ((currPointer + 1) * totalTagSize);
-      }
-      else  {
-        start = matcher.start(0);
-        end = matcher.end(0);
-      }
-
-      result.add(new Interval(start, end));
-      currPointer++;
-    }
-    return result.toArray(Interval[]::new);
-  }
-
-  /**
-   * Compiles a pattern for an HTML tag containing arbitrary characters
-   * @param tagName the tag's name
-   * @return the compiled pattern
-   */
-  private static Pattern getPattern(final String tagName) {
-    patternCache.computeIfAbsent(tagName, k -> Pattern.compile(String.format("<%1$s>(.*?)<\\/%1$s>", tagName)));
-    return patternCache.get(tagName);
+    final HighlightScanner scanner = HighlightScanner.scan(highlightedText, tagName);
+    return ignoreTags ? scanner.getIntervals() : scanner.getTaggedIntervals();
   }
 
   /**
@@ -169,7 +118,7 @@ public class HighlightHelper {
    * @return the text without highlight tags
    */
   static String removeHighlighting(final String highlighted, final String tagName) {
-    return getPattern(tagName).matcher(highlighted).replaceAll(m -> m.group(1));
+    return HighlightScanner.scan(highlighted, tagName).getText();
   }
 
   /**
@@ -180,16 +129,17 @@ public class HighlightHelper {
    * @return
    */
   static String addHighlighting(final String text, final String tagName, final Interval[] highlightIntervals) {
-    int offset = 0;
-    String plainSegment;
-    String highlightedSegment;
-    final StringBuilder builder = new StringBuilder(text);
+    final String openingTag = DOMHelper.getOpeningTag(tagName);
+    final String closingTag = DOMHelper.getClosingTag(tagName);
+    final StringBuilder builder = new StringBuilder(text.length() + highlightIntervals.length * (openingTag.length() + closingTag.length()));
+    int pointer = 0;
     for (Interval interval : highlightIntervals) {
-      plainSegment = builder.substring(interval.start + offset, interval.end + offset);
-      highlightedSegment = DOMHelper.wrapWithTag(plainSegment, tagName);
-      builder.replace(interval.start + offset, interval.end + offset, highlightedSegment);
-      offset += highlightedSegment.length() - plainSegment.length();
+      builder.append(text, pointer, interval.start)
+          .append(openingTag)
+          .append(text, interval.start, interval.end)
+          .append(closingTag);
+      pointer = interval.end;
     }
-    return builder.toString();
+    return builder.append(text, pointer, text.length()).toString();
   }
 }
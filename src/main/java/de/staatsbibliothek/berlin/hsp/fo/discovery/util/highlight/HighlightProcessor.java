@@ -0,0 +1,98 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.ListHelper;
+import jakarta.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public class HighlightProcessor {
+
+  private HighlightProcessor() {}
+
+  /**
+   * Post-processes the highlight information of a single document. Each snippet is parsed once into its text and the
+   * intervals of its highlighted terms. Based on that model
+   * <ul>
+   *   <li>the snippets of fields, whose names only differ by an optional suffix, are merged</li>
+   *   <li>contiguous highlighted terms are merged</li>
+   *   <li>the snippets are fragmented around their highlighted terms by using the given {@code padding}</li>
+   * </ul>
+   * Only the resulting fragments are serialized.
+   *
+   * @param highlighting the highlight information, mapping field names to their highlighted snippets
+   * @param tagName      the tag's name that is used for wrapping the highlighted terms
+   * @param padding      the padding that should be used to fill up the fragments with adjacent words
+   * @return the highlight information, mapping the field names without suffix to their fragments
+   */
+  public static Map<String, List<String>> process(final Map<String, List<String>> highlighting, final String tagName, final int padding) {
+    final Map<String, List<Snippet>> snippetsByField = new LinkedHashMap<>();
+    for (Map.Entry<String, List<String>> entry : highlighting.entrySet()) {
+      snippetsByField.merge(FieldProvider.removeOptionalSuffix(entry.getKey()), parse(entry.getValue(), tagName),
+          (snippets, otherSnippets) -> ListHelper.merge(snippets, otherSnippets, Snippet::hasSameText, Snippet::merge));
+    }
+
+    final Map<String, List<String>> result = new LinkedHashMap<>();
+    snippetsByField.forEach((field, snippets) -> result.put(field, fragment(snippets, tagName, padding)));
+    return result;
+  }
+
+  private static List<Snippet> parse(@Nullable final List<String> highlighted, final String tagName) {
+    if (highlighted == null) {
+      return List.of();
+    }
+    final List<Snippet> result = new ArrayList<>(highlighted.size());
+    for (String item : highlighted) {
+      final HighlightScanner scanner = HighlightScanner.scan(item, tagName);
+      result.add(new Snippet(scanner.getText(), List.of(scanner.getIntervals())));
+    }
+    return result;
+  }
+
+  private static List<String> fragment(final List<Snippet> snippets, final String tagName, final int padding) {
+    final int tagsLength = DOMHelper.getOpeningTag(tagName).length() + DOMHelper.getClosingTag(tagName).length();
+    final List<String> result = new ArrayList<>();
+
+    for (Snippet snippet : snippets) {
+      final Interval[] intervals = HighlightHelper.mergeIntervals(snippet.copyIntervals());
+      final String highlighted = HighlightHelper.addHighlighting(snippet.text(), tagName, intervals);
+
+      /* the highlighted intervals' positions within the serialized snippet, including their tags */
+      final Interval[] taggedIntervals = new Interval[intervals.length];
+      for (int i = 0; i < intervals.length; i++) {
+        taggedIntervals[i] = new Interval(intervals[i].start + i * tagsLength, intervals[i].end + (i + 1) * tagsLength);
+      }
+      Collections.addAll(result, FragmentHelper.fragment(highlighted, taggedIntervals, padding));
+    }
+    return result;
+  }
+
+  /**
+   * A highlight snippet, represented by its text without highlighting tags and the highlighted intervals within that text
+   */
+  private record Snippet(String text, List<Interval> intervals) {
+
+    boolean hasSameText(final Snippet other) {
+      return text.equals(other.text);
+    }
+
+    Snippet merge(final Snippet other) {
+      final Interval[] merged = HighlightHelper.mergeIntervals(Stream.concat(intervals.stream(), other.intervals.stream())
+          .map(interval -> interval.toBuilder().build())
+          .toArray(Interval[]::new));
+      return new Snippet(text, List.of(merged));
+    }
+
+    /* mergeIntervals modifies the given intervals, so it's applied on copies only */
+    Interval[] copyIntervals() {
+      return intervals.stream()
+          .map(interval -> interval.toBuilder().build())
+          .toArray(Interval[]::new);
+    }
+  }
+}
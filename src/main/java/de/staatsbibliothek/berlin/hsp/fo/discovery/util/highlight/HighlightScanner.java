@@ -0,0 +1,111 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight;
+
+import java.util.Arrays;
+
+/**
+ * Scans a highlighted text, i.e. a text whose highlighted segments are wrapped by tags of a given name, in a single pass.
+ * While scanning, the tags are stripped and the positions of the highlighted segments are recorded, both within the
+ * stripped and the tagged text.
+ * A scanner holds no shared state, thus it's safe to be used by concurrent threads
+ */
+final class HighlightScanner {
+
+  private static final int[] EMPTY = new int[0];
+
+  private final String text;
+  /* start and end of each highlighted segment within the stripped text, stored as consecutive pairs */
+  private final int[] positions;
+  /* start and end of each highlighted segment including its tags within the tagged text, stored as consecutive pairs */
+  private final int[] taggedPositions;
+  private final int size;
+
+  private HighlightScanner(final String text, final int[] positions, final int[] taggedPositions, final int size) {
+    this.text = text;
+    this.positions = positions;
+    this.taggedPositions = taggedPositions;
+    this.size = size;
+  }
+
+  /**
+   * Scans the given {@code highlightedText}. A highlighted segment starts with an opening tag and ends with the next
+   * closing tag, an opening tag without a subsequent closing tag is kept as it is
+   *
+   * @param highlightedText the text to scan
+   * @param tagName         the HTML tag's name, which is marking the highlighted segments
+   * @return the scan's result
+   */
+  static HighlightScanner scan(final String highlightedText, final String tagName) {
+    final String openingTag = DOMHelper.getOpeningTag(tagName);
+    final String closingTag = DOMHelper.getClosingTag(tagName);
+    int openingIdx = highlightedText.indexOf(openingTag);
+    if (openingIdx < 0) {
+      return new HighlightScanner(highlightedText, EMPTY, EMPTY, 0);
+    }
+
+    final StringBuilder builder = new StringBuilder(highlightedText.length());
+    int[] positions = new int[8];
+    int[] taggedPositions = new int[8];
+    int size = 0;
+    int pointer = 0;
+
+    while (openingIdx >= 0) {
+      final int contentStart = openingIdx + openingTag.length();
+      final int closingIdx = highlightedText.indexOf(closingTag, contentStart);
+      if (closingIdx < 0) {
+        break;
+      }
+      if (positions.length < 2 * size + 2) {
+        positions = Arrays.copyOf(positions, positions.length * 2);
+        taggedPositions = Arrays.copyOf(taggedPositions, taggedPositions.length * 2);
+      }
+      builder.append(highlightedText, pointer, openingIdx);
+      positions[2 * size] = builder.length();
+      builder.append(highlightedText, contentStart, closingIdx);
+      positions[2 * size + 1] = builder.length();
+
+      pointer = closingIdx + closingTag.length();
+      taggedPositions[2 * size] = openingIdx;
+      taggedPositions[2 * size + 1] = pointer;
+      size++;
+      openingIdx = highlightedText.indexOf(openingTag, pointer);
+    }
+    builder.append(highlightedText, pointer, highlightedText.length());
+    return new HighlightScanner(builder.toString(), positions, taggedPositions, size);
+  }
+
+  /**
+   * @return the scanned text without highlighting tags
+   */
+  String getText() {
+    return text;
+  }
+
+  /**
+   * @return the number of highlighted segments
+   */
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the highlighted segments' intervals within the text without highlighting tags
+   */
+  Interval[] getIntervals() {
+    return toIntervals(positions);
+  }
+
+  /**
+   * @return the highlighted segments' intervals including their tags within the scanned text
+   */
+  Interval[] getTaggedIntervals() {
+    return toIntervals(taggedPositions);
+  }
+
+  private Interval[] toIntervals(final int[] pairs) {
+    final Interval[] result = new Interval[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = new Interval(pairs[2 * i], pairs[2 * i + 1]);
+    }
+    return result;
+  }
+}
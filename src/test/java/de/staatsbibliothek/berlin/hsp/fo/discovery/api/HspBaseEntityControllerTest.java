@@ -15,6 +15,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
@@ -49,8 +50,9 @@ class HspBaseEntityControllerTest extends AbstractRestControllerTest {
   @Test
   void givenHspIdWithoutMatchingObject_whenGetByIdIsCalled_thenNotFoundIsReturned() throws Exception {
     final BaseService.SearchParams params = BaseService.SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(ArrayUtils.toArray(DisplayField.ID, DisplayField.TYPE, DisplayField.GROUP_ID))
-        .withPhrase("HSP-01234567-0123-0123-0123-0123456789ab")
+        .withFilterQueries(Map.of("{!term f=id cache=false}HSP-01234567-0123-0123-0123-0123456789ab", ""))
         .withRows(2)
         .withSearchFields(List.of("id-search"))
         .build();
@@ -66,8 +68,9 @@ class HspBaseEntityControllerTest extends AbstractRestControllerTest {
   void givenHspId_whenGetByIdIsCalled_thenHspObjectIsReturned() throws Exception {
     final HspBaseEntity mockedHspBaseEntity = new HspBaseEntity("HSP-01234567-0123-0123-0123-0123456789ab", "hsp:object");
     final BaseService.SearchParams params = BaseService.SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(ArrayUtils.toArray(DisplayField.ID, DisplayField.TYPE, DisplayField.GROUP_ID))
-        .withPhrase("HSP-01234567-0123-0123-0123-0123456789ab")
+        .withFilterQueries(Map.of("{!term f=id cache=false}HSP-01234567-0123-0123-0123-0123456789ab", ""))
         .withRows(2)
         .withSearchFields(List.of("id-search"))
         .build();
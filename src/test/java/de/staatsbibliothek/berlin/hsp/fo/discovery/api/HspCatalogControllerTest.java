@@ -53,6 +53,7 @@ class HspCatalogControllerTest extends AbstractRestControllerTest {
   @Test
   void givenInvalidId_whenGetByIdIsCalled_thenNotFoundIsReturned() throws Exception {
     final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(new DisplayField[]{})
         .withPhrase("invalid-id")
         .withRows(2)
@@ -70,6 +71,7 @@ class HspCatalogControllerTest extends AbstractRestControllerTest {
   void givenValidId_whenGetByIdIsCalled_thenCatalogIsReturned() throws Exception {
     final HspCatalog mockedCatalog = new HspCatalog("valid-id", "hsp:catalog");
     final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(new DisplayField[]{})
         .withPhrase("valid-id")
         .withRows(2)
@@ -116,7 +118,7 @@ class HspCatalogControllerTest extends AbstractRestControllerTest {
         .param("ff", "catalog-publisher-facet")
         .param("q", "*")
         .param("qf", "fulltext-search"));
-    verify(this.mockedService).find(searchParamsCaptor.capture());
+    verify(this.mockedService).findAsync(searchParamsCaptor.capture());
 
     SearchParams captuedSearchParams = searchParamsCaptor.getValue();
     assertThat(captuedSearchParams.getFacets(), hasItems("catalog-author-facet", "catalog-publisher-facet"));
@@ -131,7 +133,7 @@ class HspCatalogControllerTest extends AbstractRestControllerTest {
         .param("ff", "invalid-facet")
         .param("q", "*")
         .param("qf", "fulltext-search"));
-    verify(this.mockedService).find(searchParamsCaptor.capture());
+    verify(this.mockedService).findAsync(searchParamsCaptor.capture());
 
     SearchParams captuedSearchParams = searchParamsCaptor.getValue();
     assertThat(captuedSearchParams.getFacets(), hasItems("catalog-author-facet", "catalog-publisher-facet"));
@@ -143,7 +145,7 @@ class HspCatalogControllerTest extends AbstractRestControllerTest {
     this.mockMvc.perform(get("/catalogs/search")
         .param("q", "*")
         .param("qf", "fulltext-search"));
-    verify(this.mockedService).find(searchParamsCaptor.capture());
+    verify(this.mockedService).findAsync(searchParamsCaptor.capture());
 
     SearchParams captuedSearchParams = searchParamsCaptor.getValue();
     assertThat(captuedSearchParams.getFacets(), hasItems("catalog-author-facet", "catalog-publisher-facet"));
@@ -38,6 +38,7 @@ class HspDescriptionControllerTest extends AbstractRestControllerTest {
   @Test
   void whenGetByIdIsCalledAndIdIsWrong_thenNotFoundIsReturned() throws Exception {
     final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(new DisplayField[]{})
         .withPhrase("invalid-id")
         .withRows(2)
@@ -55,6 +56,7 @@ class HspDescriptionControllerTest extends AbstractRestControllerTest {
   void whenGetByIdIsCalled_thenDescriptionIsReturned() throws Exception {
     final HspDescription mockedDescription = new HspDescription("valid-id", "hsp:description");
     final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(new DisplayField[]{})
         .withPhrase("valid-id")
         .withRows(2)
@@ -1,22 +1,43 @@
 package de.staatsbibliothek.berlin.hsp.fo.discovery.api;
 
+import de.staatsbibliothek.berlin.hsp.fo.discovery.api.converter.StringToSortPhraseConverter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.api.util.ExportLimiter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ExportConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HspConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.CustomizedResponseEntityExceptionHandler;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObject;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
+import org.skyscreamer.jsonassert.JSONAssert;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.format.support.FormattingConversionService;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class HspObjectControllerTest extends AbstractRestControllerTest {
@@ -36,9 +57,16 @@ class HspObjectControllerTest extends AbstractRestControllerTest {
     return new HspObjectController(service, config, highlightConfig);
   }
 
+  @Override
+  public FormattingConversionService addConverter(final FormattingConversionService conversionService) {
+    conversionService.addConverter(new StringToSortPhraseConverter());
+    return super.addConverter(conversionService);
+  }
+
   @Test
   void whenGetByIdIsCalledAndIdIsWrong_thenNotFoundIsReturned() throws Exception {
     final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(new DisplayField[]{})
         .withPhrase("invalid-id")
         .withRows(2)
@@ -56,6 +84,7 @@ class HspObjectControllerTest extends AbstractRestControllerTest {
   void whenGetByIdIsCalled_thenDescriptionIsReturned() throws Exception {
     final HspObject mockedKOD = new HspObject("valid-id", "hsp:object");
     final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
         .withDisplayFields(new DisplayField[]{})
         .withPhrase("valid-id")
         .withRows(2)
@@ -70,6 +99,26 @@ class HspObjectControllerTest extends AbstractRestControllerTest {
         .andExpect(content().json(jsonResponseBuilder.getJson(mockedKOD)));
   }
 
+  @Test
+  void whenGetByIdIsCalledWithHspId_thenIdIsMatchedByTermFilter() throws Exception {
+    final String id = "HSP-0a1b2c3d-4e5f-6789-abcd-ef0123456789";
+    final HspObject mockedKOD = new HspObject(id, "hsp:object");
+    final SearchParams params = SearchParams.builder()
+        .withDeadlineExempt(true)
+        .withDisplayFields(new DisplayField[]{})
+        .withFilterQueries(Map.of("{!term f=id cache=false}" + id, ""))
+        .withRows(2)
+        .withSearchFields(List.of("id-search"))
+        .build();
+
+    Mockito.when(this.service.find(params))
+        .thenReturn(new Result<>(List.of(mockedKOD)));
+
+    this.mockMvc.perform(get("/kods/" + id))
+        .andExpect(status().isOk())
+        .andExpect(content().json(jsonResponseBuilder.getJson(mockedKOD)));
+  }
+
   @Test
   void whenGetAllIsCalled_thenAllDescriptionsAreReturned() throws Exception {
     final HspObject mockedKOD01 = new HspObject("valid-id-01", "hsp:object");
@@ -90,4 +139,101 @@ class HspObjectControllerTest extends AbstractRestControllerTest {
         .andExpect(status().isOk())
         .andExpect(content().json(jsonResponseBuilder.getJson(mockResult)));
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenSearchIsCalled_thenResultIsReturnedAsynchronously() throws Exception {
+    final HspObject mockedKOD = new HspObject("valid-id", "hsp:object");
+    final Result<List<HspObject>> mockResult = new Result<>(List.of(mockedKOD));
+
+    Mockito.when(this.service.findAsync(Mockito.any(SearchParams.class)))
+        .thenReturn(CompletableFuture.completedFuture(mockResult));
+
+    final MvcResult mvcResult = this.mockMvc.perform(get("/kods/search").param("q", "valid").param("qf", "id-search"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    this.mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().json(jsonResponseBuilder.getJson(mockResult)));
+  }
+
+  @Test
+  void whenExportIsCalled_thenAllPagesAreStreamedAsNdjson() throws Exception {
+    final HspObject mockedKOD01 = new HspObject("valid-id-01", "hsp:object");
+    final HspObject mockedKOD02 = new HspObject("valid-id-02", "hsp:object");
+    final HspObject mockedKOD03 = new HspObject("valid-id-03", "hsp:object");
+
+    Mockito.doAnswer(invocation -> {
+      final Consumer<List<HspObject>> pageConsumer = invocation.getArgument(1);
+      pageConsumer.accept(List.of(mockedKOD01, mockedKOD02));
+      pageConsumer.accept(List.of(mockedKOD03));
+      return null;
+    }).when(this.service).export(Mockito.argThat(params -> params.getRows() == 2), Mockito.any());
+
+    final MvcResult mvcResult = this.mockMvc.perform(get("/kods/export").param("pageSize", "2"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    final String[] lines = this.mockMvc.perform(asyncDispatch(mvcResult))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+        .andReturn()
+        .getResponse()
+        .getContentAsString()
+        .split("\n");
+    assertThat(lines.length, is(3));
+    JSONAssert.assertEquals(jsonResponseBuilder.getJson(mockedKOD01), lines[0], false);
+    JSONAssert.assertEquals(jsonResponseBuilder.getJson(mockedKOD03), lines[2], false);
+  }
+
+  @Test
+  void givenRunningExport_whenMaximumOfConcurrentExportsIsReached_thenTooManyRequestsIsReturned() throws Exception {
+    final CountDownLatch exporting = new CountDownLatch(1);
+    Mockito.doAnswer(invocation -> exporting.await(10, TimeUnit.SECONDS))
+        .when(this.service).export(Mockito.any(), Mockito.any());
+    final ExportConfig exportConfig = new ExportConfig();
+    exportConfig.setMaxConcurrent(1);
+    final HspObjectController controller = new HspObjectController(service, config, highlightConfig);
+    final ExportLimiter exportLimiter = new ExportLimiter(exportConfig);
+    controller.setExportConfig(exportConfig);
+    controller.setExportLimiter(exportLimiter);
+    final MockMvc limitedMockMvc = MockMvcBuilders.standaloneSetup(controller, new CustomizedResponseEntityExceptionHandler()).build();
+
+    final MvcResult running = limitedMockMvc.perform(get("/kods/export"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    limitedMockMvc.perform(get("/kods/export"))
+        .andExpect(status().isTooManyRequests());
+
+    exporting.countDown();
+    limitedMockMvc.perform(asyncDispatch(running))
+        .andExpect(status().isOk());
+    assertThat(exportLimiter.getAvailablePermits(), is(1));
+  }
+
+  @Test
+  void whenExportIsCalledWithInvalidPageSize_thenBadRequestIsReturned() throws Exception {
+    this.mockMvc.perform(get("/kods/export").param("pageSize", "0"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  void whenGetByIdsIsCalled_thenObjectsAreReturnedByIdWithNullForMissingOnes() throws Exception {
+    final HspObject mockedKOD = new HspObject("valid-id", "hsp:object");
+
+    Mockito.when(this.service.find(Mockito.argThat(params -> params != null
+            && params.getRows() == 2
+            && params.getFilterQueries().containsKey("{!terms f=id cache=false}valid-id,missing-id"))))
+        .thenReturn(new Result<>(List.of(mockedKOD)));
+
+    this.mockMvc.perform(post("/kods/batch").contentType(MediaType.APPLICATION_JSON).content("[\"valid-id\", \"missing-id\", \"valid-id\"]"))
+        .andExpect(status().isOk())
+        .andExpect(content().json("{\"valid-id\": " + jsonResponseBuilder.getJson(mockedKOD) + ", \"missing-id\": null}", true));
+  }
+
+  @Test
+  void whenGetByIdsIsCalledWithoutIds_thenBadRequestIsReturned() throws Exception {
+    this.mockMvc.perform(post("/kods/batch").contentType(MediaType.APPLICATION_JSON).content("[]"))
+        .andExpect(status().isBadRequest());
+  }
+}
@@ -43,13 +43,16 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.support.FormattingConversionService;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.result.MockMvcResultHandlers;
 
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -63,7 +66,7 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
 
   static {
     DEFAULT_FILTER.put(
-        "type-facet:(\"hsp:object\" OR \"hsp:description\" OR \"hsp:description_retro\")",
+        "type-facet:(\"hsp:description\" OR \"hsp:description_retro\" OR \"hsp:object\")",
         "type-facet");
   }
 
@@ -94,6 +97,7 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
 
     final SearchParams params = SearchParams.builder()
         .withCollapse(true)
+        .withDeadlineExempt(true)
         .withRows(2)
         .withPhrase("def")
         .withSearchFields(List.of("id-search"))
@@ -113,6 +117,7 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
     
     final SearchParams params = SearchParams.builder()
         .withCollapse(true)
+        .withDeadlineExempt(true)
         .withRows(2)
         .withPhrase("existingId")
         .withSearchFields(List.of("id-search"))
@@ -154,12 +159,16 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
 
     // mock the request for completing the group
     final Result<List<HspObjectGroup>> groupResult = new Result<>(new ArrayList<>());
-    Mockito.when(this.objectGroupService.find(params)).thenReturn(groupResult);
+    Mockito.when(this.objectGroupService.findAsync(params)).thenReturn(CompletableFuture.completedFuture(groupResult));
 
     final String jsonResponse = jsonResponseBuilder.getJsonResult(groupResult);
 
     // perform request and check expectations
-    this.mockMvc.perform(get("/hspobjects/search?q=fail&qf=id-search&start=0&rows=10"))
+    final MvcResult mvcResult = this.mockMvc.perform(get("/hspobjects/search?q=fail&qf=id-search&start=0&rows=10"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    this.mockMvc.perform(asyncDispatch(mvcResult))
         .andExpect(content().json(jsonResponse))
         .andExpect(status().isOk());
   }
@@ -198,13 +207,17 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
 
     resultGroupMetaData.setHighlighting(Map.of(hspObjectGroup.getGroupId(), Map.of(hspObjectGroup.getGroupId(), highlightingFragments)));
     final Result<List<HspObjectGroup>> mockedGroupResponse = new Result<>(List.of(hspObjectGroup), resultGroupMetaData);
-    Mockito.when(this.objectGroupService.find(params)).thenReturn(mockedGroupResponse);
+    Mockito.when(this.objectGroupService.findAsync(params)).thenReturn(CompletableFuture.completedFuture(mockedGroupResponse));
 
     // build expected json
     final String jsonResponse = jsonResponseBuilder.getJsonResult(mockedGroupResponse);
 
     // perform request and check expectations
-    this.mockMvc.perform(get("/hspobjects/search?q=success&qf=id-search&start=0&rows=10"))
+    final MvcResult mvcResult = this.mockMvc.perform(get("/hspobjects/search?q=success&qf=id-search&start=0&rows=10"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    this.mockMvc.perform(asyncDispatch(mvcResult))
         .andDo(MockMvcResultHandlers.print())
         .andExpect(content().json(jsonResponse))
         .andExpect(status().isOk());
@@ -246,13 +259,17 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
 
     final Result<List<HspObjectGroup>> mockedGroupResult = new Result<>(List.of(TestDataProvider.getTestData()), TestDataProvider.getMetadata());
 
-    Mockito.when(this.objectGroupService.find(params))
-        .thenReturn(mockedGroupResult);
+    Mockito.when(this.objectGroupService.findAsync(params))
+        .thenReturn(CompletableFuture.completedFuture(mockedGroupResult));
     // build expected json
     final String jsonResponse = jsonResponseBuilder.getJsonResult(mockedGroupResult);
 
     // perform request and check expectations
-    this.mockMvc.perform(get("/hspobjects/search?q=test&qf=id-search&hl=false"))
+    final MvcResult mvcResult = this.mockMvc.perform(get("/hspobjects/search?q=test&qf=id-search&hl=false"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    this.mockMvc.perform(asyncDispatch(mvcResult))
         .andExpect(content().json(jsonResponse))
         .andExpect(status().isOk());
   }
@@ -271,8 +288,8 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
         .build();
 
     // set the mocked result
-    Mockito.when(this.objectGroupService.find(params))
-        .thenReturn(mockedResult);
+    Mockito.when(this.objectGroupService.findAsync(params))
+        .thenReturn(CompletableFuture.completedFuture(mockedResult));
 
     // mock the request for completing the group
     final String query = String.format("group-id-search" + ":(%s)",
@@ -288,14 +305,18 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
 
     final Result<List<HspObjectGroup>> mockedGroupResult = new Result<>(List.of(TestDataProvider.getTestData()));
 
-    Mockito.when(this.objectGroupService.find(qParams))
-        .thenReturn(mockedGroupResult);
+    Mockito.when(this.objectGroupService.findAsync(qParams))
+        .thenReturn(CompletableFuture.completedFuture(mockedGroupResult));
 
     // build expected json
     final String jsonResponse = jsonResponseBuilder.getJsonResult(mockedGroupResult);
 
     // perform request and check expectations
-    this.mockMvc.perform(get("/hspobjects/search?q=success&start=0&rows=10&hl=false"))
+    final MvcResult mvcResult = this.mockMvc.perform(get("/hspobjects/search?q=success&start=0&rows=10&hl=false"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    this.mockMvc.perform(asyncDispatch(mvcResult))
         .andExpect(content().json(jsonResponse))
         .andExpect(jsonPath("$.metadata.numFound").doesNotExist())
         .andExpect(status().isOk());
@@ -317,20 +338,42 @@ class HspObjectGroupControllerTest extends AbstractRestControllerTest {
         .build();
 
     // set the mocked result
-    Mockito.when(this.objectGroupService.find(params))
-        .thenReturn(new Result<>(List.of(), MetaData.builder()
+    Mockito.when(this.objectGroupService.findAsync(params))
+        .thenReturn(CompletableFuture.completedFuture(new Result<>(List.of(), MetaData.builder()
             .withNumFound(0)
             .withRows(10)
-            .build()));
+            .build())));
 
     // perform request and check expectations
-    this.mockMvc.perform(get("/hspobjects/search?q=not-existing&qf=id-search&start=0&rows=10&hl=false"))
+    final MvcResult mvcResult = this.mockMvc.perform(get("/hspobjects/search?q=not-existing&qf=id-search&start=0&rows=10&hl=false"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+
+    this.mockMvc.perform(asyncDispatch(mvcResult))
         .andExpect(jsonPath("$.metadata.numFound").value(0))
         .andExpect(jsonPath("$.metadata.start").value(0))
         .andExpect(jsonPath("$.metadata.rows").value(10)) //sic
         .andExpect(status().isOk());
   }
 
+  @Test
+  void whenCalledMembersWithType_thenMembersAreReturned() throws Exception {
+    final HspObjectGroup members = new HspObjectGroup();
+    members.setHspDigitizeds(TestDataProvider.getTestData().getHspDigitizeds());
+    final Result<HspObjectGroup> mockedResult = new Result<>(members, MetaData.builder()
+        .withNumFound(1)
+        .withRows(5)
+        .withStart(10)
+        .build());
+
+    Mockito.when(this.objectGroupService.findMembers("existingId", List.of(HspType.HSP_DIGITIZED.getValue()), 10, 5)).thenReturn(mockedResult);
+
+    this.mockMvc.perform(get("/hspobjects/existingId/members?type=hsp:digitized&start=10&rows=5"))
+        .andExpect(status().isOk())
+        .andExpect(content().json(jsonResponseBuilder.getJson(mockedResult)))
+        .andExpect(jsonPath("$.metadata.numFound").value(1));
+  }
+
   @AfterEach
   public void onTearDown() {
     Mockito.reset(this.objectGroupService);
@@ -1,15 +1,11 @@
 package de.staatsbibliothek.berlin.hsp.fo.discovery.api;
 
-import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams;
-import de.staatsbibliothek.berlin.hsp.fo.discovery.type.FacetField;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.InfoStats;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.StatsService;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -19,94 +15,38 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class StatsControllerTest extends AbstractRestControllerTest {
 
   @MockBean
-  private BaseService<Void> infoService;
+  private StatsService statsService;
 
   @Override
   public Object getControllerToTest() {
-    return new StatsController(infoService);
+    return new StatsController(statsService);
   }
 
   @Test
   void whenStatsEndpointIsCalled_thenResultIsCorrect() throws Exception {
-    //KODs
-    final SearchParams baseParams = SearchParams.builder()
-        .withRows(0)
-        .withFacetMinCount(1)
-        .withFacetTermsExcluded(Collections.emptyList())
-        .withIncludeMissingFacet(true)
+    final InfoStats stats = InfoStats.builder()
+        .withKod(InfoStats.BaseStats.builder()
+            .withAll(3L)
+            .withInstitution(Map.of("test repo 1", 1L, "test repo 2", 2L))
+            .build())
+        .withDigitized(InfoStats.BaseStats.builder()
+            .withAll(19L)
+            .withInstitution(Map.of("test repo 9", 9L, "test repo 10", 10L))
+            .build())
+        .withCatalog(InfoStats.BaseStats.builder()
+            .withAll(23L)
+            .withInstitution(Map.of("test repo 11", 11L, "test repo 12", 12L))
+            .build())
+        .withDescription(InfoStats.DescriptionStats.builder()
+            .withAll(33L)
+            .withRetro(7L)
+            .withExtern(11L)
+            .withIntern(15L)
+            .withInstitution(Map.of("test repo 3", 3L, "test repo 4", 4L, "test repo 5", 5L, "test repo 6", 6L, "test repo 7", 7L, "test repo 8", 8L))
+            .build())
         .build();
-
-    final SearchParams kodSearchParams = baseParams.toBuilder()
-        .withFacets(List.of(FacetField.REPOSITORY_ID.getName()))
-        .withFilterQueries(Map.of("type-facet:(\"hsp:object\")", "type-facet"))
-        .build();
-
-    final MetaData mockedResultKOD = MetaData.builder()
-        .withFacets(Map.of("repository-id-facet", Map.of("test repo 1", 1L, "test repo 2", 2L)))
-        .build();
-    Mockito.when(this.infoService.findMetaData(kodSearchParams))
-        .thenReturn(mockedResultKOD);
-
-    // Retro Descriptions
-    final SearchParams descriptionRetroSearchParams = baseParams.toBuilder()
-        .withFacets(List.of(FacetField.REPOSITORY_ID.getName()))
-        .withFilterQueries(Map.of("type-facet:(\"hsp:description_retro\")", "type-facet"))
-        .build();
-
-    final MetaData mockedResultDescription = MetaData.builder()
-        .withFacets(Map.of("repository-id-facet", Map.of("test repo 3", 3L, "test repo 4", 4L)))
-        .build();
-    Mockito.when(this.infoService.findMetaData(descriptionRetroSearchParams))
-        .thenReturn(mockedResultDescription);
-
-    // Descriptions
-    final SearchParams descriptionExternalSearchParams = baseParams.toBuilder()
-        .withFacets(List.of(FacetField.REPOSITORY_ID.getName()))
-        .withFilterQueries(Map.of("type-facet:(\"hsp:description\")", "type-facet", "desc-status-facet:(\"extern\")", "desc-status-facet"))
-        .build();
-
-    final MetaData mockedResultDescriptionExternal = MetaData.builder()
-        .withFacets(Map.of("repository-id-facet", Map.of("test repo 5", 5L, "test repo 6", 6L)))
-        .build();
-    Mockito.when(this.infoService.findMetaData(descriptionExternalSearchParams))
-        .thenReturn(mockedResultDescriptionExternal);
-
-    final SearchParams descriptionInternalSearchParams = baseParams.toBuilder()
-        .withFacets(List.of(FacetField.REPOSITORY_ID.getName()))
-        .withFilterQueries(Map.of("type-facet:(\"hsp:description\")", "type-facet", "desc-status-facet:(\"intern\")", "desc-status-facet"))
-        .build();
-
-    final MetaData mockedResultDescriptionInternal = MetaData.builder()
-        .withFacets(Map.of("repository-id-facet", Map.of("test repo 7", 7L, "test repo 8", 8L)))
-        .build();
-    Mockito.when(this.infoService.findMetaData(descriptionInternalSearchParams))
-        .thenReturn(mockedResultDescriptionInternal);
-
-    // Digitized
-    final SearchParams digitizedSearchParams = baseParams.toBuilder()
-        .withFacets(List.of(FacetField.REPOSITORY_ID.getName()))
-        .withFilterQueries(Map.of("type-facet:(\"hsp:digitized\")", "type-facet"))
-        .build();
-
-
-    final MetaData mockedResultDigitized = MetaData.builder()
-        .withFacets(Map.of("repository-id-facet", Map.of("test repo 9", 9L, "test repo 10", 10L)))
-        .build();
-    Mockito.when(this.infoService.findMetaData(digitizedSearchParams))
-        .thenReturn(mockedResultDigitized);
-
-    // Catalogs
-    final SearchParams catalogsSearchParams = baseParams.toBuilder()
-        .withFacets(List.of(FacetField.REPOSITORY_ID.getName()))
-        .withFilterQueries(Map.of("type-facet:(\"hsp:catalog\")", "type-facet"))
-        .build();
-
-
-    final MetaData mockedResultCatalog = MetaData.builder()
-        .withFacets(Map.of("repository-id-facet", Map.of("test repo 11", 11L, "test repo 12", 12L)))
-        .build();
-    Mockito.when(this.infoService.findMetaData(catalogsSearchParams))
-        .thenReturn(mockedResultCatalog);
+    Mockito.when(this.statsService.getStats())
+        .thenReturn(stats);
 
     this.mockMvc.perform(get("/stats/"))
         .andExpect(status().isOk())
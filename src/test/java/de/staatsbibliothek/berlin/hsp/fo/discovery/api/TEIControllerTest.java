@@ -3,6 +3,7 @@ package de.staatsbibliothek.berlin.hsp.fo.discovery.api;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HspConfig;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.TeiDocument;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl.TEIService;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.DisplayField;
@@ -10,16 +11,29 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
 import java.util.List;
+import java.util.zip.GZIPInputStream;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class TEIControllerTest extends AbstractRestControllerTest {
+  private static final Date LAST_MODIFIED = new Date(1700000000000L);
+  private static final String ETAG = "\"" + Long.toHexString(LAST_MODIFIED.getTime()) + "\"";
+
   private final TEIService teiService;
   private final HspConfig config;
   private final HighlightConfig highlightConfig;
@@ -45,18 +59,9 @@ class TEIControllerTest extends AbstractRestControllerTest {
 
   @Test
   void whenTeiDocumentIsCalledNotExistingId_thenNotFoundIsReturned() throws Exception {
-    final SearchParams params = SearchParams.builder()
-        .withDisplayFields(ArrayUtils.toArray(DisplayField.TEI_DOCUMENT))
-        .withPhrase("def")
-        .withRows(2)
-        .withSearchFields(List.of("id-search"))
-        .build();
-
-    // prepare result
-    final Result<List<String>> mockedResult = new Result<>(List.of());
-
     // set the mocked result
-    Mockito.when(this.teiService.find(params)).thenReturn(mockedResult);
+    Mockito.when(this.teiService.findTeiDocuments(getParams("def", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of()));
 
     // perform request and check expectations
     this.mockMvc.perform(get("/tei/def"))
@@ -65,18 +70,9 @@ class TEIControllerTest extends AbstractRestControllerTest {
 
   @Test
   void whenTeiDocumentIdIsNotUnique_thenInternalServerErrorIsReturned() throws Exception {
-    final SearchParams params = SearchParams.builder()
-        .withDisplayFields(new DisplayField[]{DisplayField.TEI_DOCUMENT})
-        .withPhrase("nonUnique")
-        .withRows(2)
-        .withSearchFields(List.of("id-search"))
-        .build();
-
-    // prepare result
-    final Result<List<String>> mockedResult = new Result<>(List.of("a", "b"));
-
     // set the mocked response
-    Mockito.when(this.teiService.find(params)).thenReturn(mockedResult);
+    Mockito.when(this.teiService.findTeiDocuments(getParams("nonUnique", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument("a", null), new TeiDocument("b", null))));
 
     // perform request and check expectations
     this.mockMvc.perform(get("/tei/nonUnique"))
@@ -85,22 +81,110 @@ class TEIControllerTest extends AbstractRestControllerTest {
 
   @Test
   void whenTeiDocumentIsCalledWithId_thenTeiDocumentIsReturned() throws Exception {
-    final SearchParams params = SearchParams.builder()
-        .withDisplayFields(ArrayUtils.toArray(DisplayField.TEI_DOCUMENT))
-        .withPhrase("teiId")
-        .withRows(2)
-        .withSearchFields(List.of("id-search"))
-        .build();
-
-    // prepare result
-    final Result<List<String>> mockedResult = new Result<>(List.of("tei-content"));
-
     // set the mocked result
-    Mockito.when(this.teiService.find(params)).thenReturn(mockedResult);
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument("tei-content", LAST_MODIFIED))));
 
     // perform request and check expectations
     this.mockMvc.perform(get("/tei/teiId"))
         .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+        .andExpect(header().string(HttpHeaders.CONTENT_LENGTH, "11"))
+        .andExpect(content().string("tei-content"));
+  }
+
+  @Test
+  void whenTeiDocumentContainsMultiByteCharacters_thenContentLengthCountsTheirBytes() throws Exception {
+    final String tei = "<tei>Handschrift für Köln 📖</tei>";
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument(tei, LAST_MODIFIED))));
+
+    final MockHttpServletResponse response = this.mockMvc.perform(get("/tei/teiId"))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse();
+
+    assertThat(response.getContentLengthLong(), is((long) tei.getBytes(StandardCharsets.UTF_8).length));
+    assertThat(response.getContentAsString(StandardCharsets.UTF_8), is(tei));
+  }
+
+  @Test
+  void givenCurrentETag_whenTeiDocumentIsCalled_thenNotModifiedIsReturnedWithoutLoadingTei() throws Exception {
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument(null, LAST_MODIFIED))));
+
+    this.mockMvc.perform(get("/tei/teiId").header(HttpHeaders.IF_NONE_MATCH, ETAG))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, ETAG));
+    Mockito.verify(this.teiService, Mockito.never()).findTeiDocuments(getParams("teiId", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED));
+  }
+
+  @Test
+  void givenClientAcceptingGzip_whenLargeTeiDocumentIsCalled_thenItIsCompressed() throws Exception {
+    final String tei = "<tei>" + "text ".repeat(1000) + "</tei>";
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument(tei, LAST_MODIFIED))));
+
+    final MockHttpServletResponse response = this.mockMvc.perform(get("/tei/teiId").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + Long.toHexString(LAST_MODIFIED.getTime()) + "-gzip\""))
+        .andReturn()
+        .getResponse();
+
+    assertThat(decompress(response.getContentAsByteArray()), is(tei));
+  }
+
+  @Test
+  void givenTeiChangedAfterConditionalCheck_whenTeiDocumentIsCalled_thenETagOfLoadedTeiIsReturned() throws Exception {
+    final Date changed = new Date(LAST_MODIFIED.getTime() + 1000);
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument(null, LAST_MODIFIED))));
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument("tei-content", changed))));
+
+    this.mockMvc.perform(get("/tei/teiId").header(HttpHeaders.IF_NONE_MATCH, "\"outdated\""))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + Long.toHexString(changed.getTime()) + "\""))
+        .andExpect(content().string("tei-content"));
+  }
+
+  @Test
+  void givenClientAcceptingGzip_whenSmallTeiDocumentIsCalled_thenItIsNotCompressed() throws Exception {
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.TEI_DOCUMENT, DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument("tei-content", LAST_MODIFIED))));
+
+    this.mockMvc.perform(get("/tei/teiId").header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(header().string(HttpHeaders.ETAG, ETAG))
         .andExpect(content().string("tei-content"));
   }
+
+  @Test
+  void givenCurrentETagOfCompressedTei_whenTeiDocumentIsCalled_thenNotModifiedIsReturned() throws Exception {
+    final String compressedETag = "\"" + Long.toHexString(LAST_MODIFIED.getTime()) + "-gzip\"";
+    Mockito.when(this.teiService.findTeiDocuments(getParams("teiId", DisplayField.LAST_MODIFIED)))
+        .thenReturn(new Result<>(List.of(new TeiDocument(null, LAST_MODIFIED))));
+
+    this.mockMvc.perform(get("/tei/teiId").header(HttpHeaders.IF_NONE_MATCH, compressedETag).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, compressedETag));
+  }
+
+  private static SearchParams getParams(final String id, final DisplayField... displayFields) {
+    return SearchParams.builder()
+        .withDeadlineExempt(true)
+        .withDisplayFields(ArrayUtils.clone(displayFields))
+        .withPhrase(id)
+        .withRows(2)
+        .withSearchFields(List.of("id-search"))
+        .build();
+  }
+
+  private static String decompress(final byte[] compressed) throws IOException {
+    try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+    }
+  }
 }
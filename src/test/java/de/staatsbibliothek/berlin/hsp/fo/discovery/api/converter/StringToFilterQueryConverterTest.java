@@ -32,7 +32,9 @@ import java.util.List;
 import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.anEmptyMap;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.collection.IsMapContaining.hasKey;
 import static org.hamcrest.collection.IsMapWithSize.aMapWithSize;
 
@@ -43,7 +45,7 @@ import static org.hamcrest.collection.IsMapWithSize.aMapWithSize;
  */
 class StringToFilterQueryConverterTest {
   private static final Map<String, Object> DEFAULT_TYPE_FILTER = Map.of("type-facet", List.of("hsp:object", "hsp:description", "hsp:description_retro"));
-  private static final String CONVERTED_DEFAULT_TYPE_FILTER = "type-facet:(\"hsp:object\" OR \"hsp:description\" OR \"hsp:description_retro\")";
+  private static final String CONVERTED_DEFAULT_TYPE_FILTER = "type-facet:(\"hsp:description\" OR \"hsp:description_retro\" OR \"hsp:object\")";
   private static StringToFilterQueryConverter converter;
   
   @BeforeAll
@@ -93,10 +95,20 @@ class StringToFilterQueryConverterTest {
     Map<String, String> filterWithThreeValues =
         converter.convert("{ \"foo\": [\"bar\", \"foobar\", \"baz\"] }", DEFAULT_TYPE_FILTER);
     assertThat(filterWithThreeValues, aMapWithSize(2));
-    assertThat(filterWithThreeValues, hasKey("foo:(\"bar\" OR \"foobar\" OR \"baz\")"));
+    assertThat(filterWithThreeValues, hasKey("foo:(\"bar\" OR \"baz\" OR \"foobar\")"));
     assertThat(filterWithThreeValues, hasKey(CONVERTED_DEFAULT_TYPE_FILTER));
   }
 
+  @Test
+  void givenValuesInDifferentOrder_whenConverting_thenSameQueryIsReturned() {
+    Map<String, String> first = converter.convert("{ \"foo\": [\"la\", \"de\"], \"baz\": \"bar\" }", DEFAULT_TYPE_FILTER);
+    Map<String, String> second = converter.convert("{ \"baz\": \"bar\", \"foo\": [\"de\", \"la\", \"de\"] }", DEFAULT_TYPE_FILTER);
+
+    assertThat(first, hasKey("foo:(\"de\" OR \"la\")"));
+    assertThat(List.copyOf(first.keySet()), is(List.copyOf(second.keySet())));
+    assertThat(List.copyOf(first.keySet()), is(first.keySet().stream().sorted().toList()));
+  }
+
   @Test
   void whenCalledWithArrayOfIntegers_thenRangeQueryIsReturned() {
     Map<String, String> filterWithoutValueButTypeFilter =
@@ -112,7 +124,7 @@ class StringToFilterQueryConverterTest {
     Map<String, String> filterWithValidRange =
         converter.convert("{ \"foo\": { \"from\": 1010, \"to\":1234 }}", DEFAULT_TYPE_FILTER);
     assertThat(filterWithValidRange, aMapWithSize(2));
-    assertThat(filterWithValidRange, hasKey("foo:[1010 TO 1234]"));
+    assertThat(filterWithValidRange, hasKey("{!cache=false cost=50}foo:[1010 TO 1234]"));
   }
 
   @Test
@@ -120,7 +132,7 @@ class StringToFilterQueryConverterTest {
     Map<String, String> filterWithDecimals = converter.convert("{ \"foo\": { \"from\": 1010.0, \"to\":1234.0 }}", DEFAULT_TYPE_FILTER);
 
     assertThat(filterWithDecimals, aMapWithSize(2));
-    assertThat(filterWithDecimals, hasKey("foo:[1010.0 TO 1234.0]"));
+    assertThat(filterWithDecimals, hasKey("{!cache=false cost=50}foo:[1010.0 TO 1234.0]"));
   }
 
   @Test
@@ -129,8 +141,8 @@ class StringToFilterQueryConverterTest {
         "{ \"foo\": \"bar\", \"foobar\": [\"foo\", \"bar\", \"baz\"], \"baz\": { \"from\": 1010, \"to\": 1234 }}", DEFAULT_TYPE_FILTER);
     assertThat(filters, aMapWithSize(4));
     assertThat(filters, hasKey("foo:\"bar\""));
-    assertThat(filters, hasKey("foobar:(\"foo\" OR \"bar\" OR \"baz\")"));
-    assertThat(filters, hasKey("baz:[1010 TO 1234]"));
+    assertThat(filters, hasKey("foobar:(\"bar\" OR \"baz\" OR \"foo\")"));
+    assertThat(filters, hasKey("{!cache=false cost=50}baz:[1010 TO 1234]"));
     assertThat(filters, hasKey(CONVERTED_DEFAULT_TYPE_FILTER));
   }
 
@@ -170,7 +182,7 @@ class StringToFilterQueryConverterTest {
   @Test
   void whenCalledWithOrigDateFacet_thenCorrectQueryIsReturned() {
     String expectedQuery =
-        "(orig-date-to-facet:[1234 TO *] OR (*:* NOT orig-date-to-facet:*)) AND (orig-date-from-facet:[* TO 1337] OR (*:* NOT orig-date-from-facet:*)) AND (orig-date-from-facet:[* TO *] OR orig-date-to-facet:[* TO *])";
+        "{!cache=false cost=100}(orig-date-to-facet:[1234 TO *] OR (*:* NOT orig-date-to-facet:*)) AND (orig-date-from-facet:[* TO 1337] OR (*:* NOT orig-date-from-facet:*)) AND (orig-date-from-facet:[* TO *] OR orig-date-to-facet:[* TO *])";
 
     Map<String, String> filters = converter
         .convert("{ \"orig-date-facet\": {\"from\": 1234 , \"to\": 1337 }}", DEFAULT_TYPE_FILTER);
@@ -188,7 +200,7 @@ class StringToFilterQueryConverterTest {
   @Test
   void whenCalledWithOrigDateFacetWithMissingOption_thenCorrectQueryIsReturned() {
     String expectedQuery =
-        "(orig-date-to-facet:[1234 TO *] OR (*:* NOT orig-date-to-facet:*)) AND (orig-date-from-facet:[* TO 1337] OR (*:* NOT orig-date-from-facet:*))";
+        "{!cache=false cost=100}(orig-date-to-facet:[1234 TO *] OR (*:* NOT orig-date-to-facet:*)) AND (orig-date-from-facet:[* TO 1337] OR (*:* NOT orig-date-from-facet:*))";
 
     Map<String, String> filters = converter
         .convert("{ \"orig-date-facet\": {\"from\": 1234 , \"to\": 1337, \"missing\": true }}", DEFAULT_TYPE_FILTER);
@@ -205,7 +217,7 @@ class StringToFilterQueryConverterTest {
 
   @Test
   void whenCalledWithOrigDateFacetWithExactOption_thenCorrectQueryIsReturned() {
-    String expectedQuery = "(orig-date-from-facet:[1234 TO *] AND orig-date-to-facet:[* TO 1337])";
+    String expectedQuery = "{!cache=false cost=100}(orig-date-from-facet:[1234 TO *] AND orig-date-to-facet:[* TO 1337])";
 
     Map<String, String> filters = converter
         .convert("{ \"orig-date-facet\": {\"from\": 1234 , \"to\": 1337, \"exact\": true }}", DEFAULT_TYPE_FILTER);
@@ -226,7 +238,7 @@ class StringToFilterQueryConverterTest {
         "{ \"orig-date-facet\": {\"from\": 1234 , \"to\": 1337, \"exact\": true, \"missing\": true }}", DEFAULT_TYPE_FILTER);
     assertThat(filters, aMapWithSize(2));
     assertThat(filters, hasKey(
-        "(orig-date-from-facet:[1234 TO *] AND orig-date-to-facet:[* TO 1337]) OR ((*:* NOT orig-date-from-facet:*) AND (*:* NOT orig-date-to-facet:*))"));
+        "{!cache=false cost=100}(orig-date-from-facet:[1234 TO *] AND orig-date-to-facet:[* TO 1337]) OR ((*:* NOT orig-date-from-facet:*) AND (*:* NOT orig-date-to-facet:*))"));
     assertThat(filters, hasKey(CONVERTED_DEFAULT_TYPE_FILTER));
   }
 
@@ -245,4 +257,27 @@ class StringToFilterQueryConverterTest {
     assertThat(filters, hasKey("foo:(true)"));
     assertThat(filters, hasKey(CONVERTED_DEFAULT_TYPE_FILTER));
   }
+
+  @Test
+  void givenSameInput_whenConvertingTwice_thenCachedFilterQueriesAreReturned() {
+    Map<String, String> first = converter.convert("{ \"foo\": [\"bar\"] }", DEFAULT_TYPE_FILTER);
+    Map<String, String> second = converter.convert("{ \"foo\": [\"bar\"] }", DEFAULT_TYPE_FILTER);
+
+    assertThat(second, sameInstance(first));
+  }
+
+  @Test
+  void givenInvalidJson_whenConverting_thenNoFilterQueryIsReturned() {
+    assertThat(converter.convert("{ \"foo\": ", DEFAULT_TYPE_FILTER), anEmptyMap());
+    assertThat(converter.convert("[\"foo\"]", DEFAULT_TYPE_FILTER), anEmptyMap());
+  }
+
+  @Test
+  void givenNestedValues_whenConverting_thenTheyAreSkipped() {
+    Map<String, String> filters = converter.convert("{ \"foo\": [{ \"bar\": [1] }, \"baz\"], \"foobar\": { \"other\": { \"from\": 1 }, \"to\": 2 }, \"baz\": \"bar\" }", DEFAULT_TYPE_FILTER);
+
+    assertThat(filters, aMapWithSize(2));
+    assertThat(filters, hasKey("baz:\"bar\""));
+    assertThat(filters, hasKey(CONVERTED_DEFAULT_TYPE_FILTER));
+  }
 }
@@ -0,0 +1,55 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.SolrConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class HedgingPolicyTest {
+
+  @Test
+  void givenBudget_whenHedging_thenHedgesAreLimitedToEarnedOnes() {
+    final HedgingPolicy policy = new HedgingPolicy(hedging(0.5, 0));
+
+    policy.onQuery();
+    assertThat(policy.tryHedge(), is(false));
+    policy.onQuery();
+    assertThat(policy.tryHedge(), is(true));
+    assertThat(policy.tryHedge(), is(false));
+    assertThat(policy.getFired(), is(1L));
+  }
+
+  @Test
+  void givenRecordedLatencies_whenGettingDelay_thenPercentileIsUsed() {
+    final HedgingPolicy policy = new HedgingPolicy(hedging(0.05, 0));
+
+    for (int i = 1; i <= 64; i++) {
+      policy.record(TimeUnit.MILLISECONDS.toNanos(i));
+    }
+
+    assertThat(policy.getDelayNanos(), is(TimeUnit.MILLISECONDS.toNanos(32)));
+  }
+
+  @Test
+  void givenFastQueries_whenGettingDelay_thenMinDelayIsUsed() {
+    final HedgingPolicy policy = new HedgingPolicy(hedging(0.05, 50));
+
+    for (int i = 1; i <= 64; i++) {
+      policy.record(TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    assertThat(policy.getDelayNanos(), is(TimeUnit.MILLISECONDS.toNanos(50)));
+  }
+
+  private static SolrConfig.Hedging hedging(final double budget, final int minDelay) {
+    final SolrConfig.Hedging hedging = new SolrConfig.Hedging();
+    hedging.setEnabled(true);
+    hedging.setPercentile(0.5);
+    hedging.setBudget(budget);
+    hedging.setMinDelay(minDelay);
+    return hedging;
+  }
+}
@@ -0,0 +1,57 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+
+class LeastOutstandingRequestsRouterTest {
+
+  @Test
+  void givenOutstandingRequests_whenOrdering_thenLeastBusyUrlIsFirst() {
+    final LeastOutstandingRequestsRouter router = new LeastOutstandingRequestsRouter(List.of("a", "b", "c"));
+    router.begin("a");
+    router.begin("a");
+    router.begin("c");
+
+    assertThat(router.order(), contains("b", "c", "a"));
+  }
+
+  @Test
+  void givenNoOutstandingRequests_whenOrdering_thenUrlsAreRotated() {
+    final LeastOutstandingRequestsRouter router = new LeastOutstandingRequestsRouter(List.of("a", "b"));
+
+    final List<String> first = router.order();
+    final List<String> second = router.order();
+
+    assertThat(first, containsInAnyOrder("a", "b"));
+    assertThat(second.get(0), not(is(first.get(0))));
+  }
+
+  @Test
+  void givenCompletedRequest_whenOrdering_thenItIsNotCountedAnymore() {
+    final LeastOutstandingRequestsRouter router = new LeastOutstandingRequestsRouter(List.of("a", "b"));
+    router.begin("a");
+    router.end("a");
+    router.begin("b");
+
+    assertThat(router.getOutstanding("a"), is(0));
+    assertThat(router.order().get(0), is("a"));
+  }
+
+  @Test
+  void givenRequestUrl_whenFindingUrl_thenAddressedReplicaIsReturned() {
+    final LeastOutstandingRequestsRouter router = new LeastOutstandingRequestsRouter(List.of("http://solr:8983/solr/hsp", "http://solr:8983/solr/hsp-1"));
+
+    assertThat(router.findUrl("http://solr:8983/solr/hsp-1/select"), is("http://solr:8983/solr/hsp-1"));
+    assertThat(router.findUrl("http://solr:8983/solr/hsp/select?wt=javabin"), is("http://solr:8983/solr/hsp"));
+    assertThat(router.findUrl("http://solr:8983/solr/hsp"), is("http://solr:8983/solr/hsp"));
+    assertThat(router.findUrl("http://other:8983/solr/hsp/select"), nullValue());
+  }
+}
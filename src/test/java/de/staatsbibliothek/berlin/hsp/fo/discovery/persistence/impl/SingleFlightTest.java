@@ -0,0 +1,73 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class SingleFlightTest {
+
+  @Test
+  void givenCallInFlight_whenExecutingSameKey_thenCallIsShared() {
+    final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    final CompletableFuture<String> call = new CompletableFuture<>();
+    final AtomicInteger calls = new AtomicInteger();
+
+    final CompletableFuture<String> first = singleFlight.execute("a", () -> {
+      calls.incrementAndGet();
+      return call;
+    });
+    final CompletableFuture<String> second = singleFlight.execute("a", () -> {
+      calls.incrementAndGet();
+      return CompletableFuture.completedFuture("other");
+    });
+    call.complete("result");
+
+    assertThat(first.join(), is("result"));
+    assertThat(second.join(), is("result"));
+    assertThat(calls.get(), is(1));
+    assertThat(singleFlight.getCoalesced(), is(1L));
+  }
+
+  @Test
+  void givenCompletedCall_whenExecutingSameKey_thenCallIsPerformedAgain() {
+    final SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+    final AtomicInteger calls = new AtomicInteger();
+
+    singleFlight.execute("a", () -> CompletableFuture.completedFuture(calls.incrementAndGet()));
+    final CompletableFuture<Integer> second = singleFlight.execute("a", () -> CompletableFuture.completedFuture(calls.incrementAndGet()));
+
+    assertThat(second.join(), is(2));
+    assertThat(singleFlight.getCoalesced(), is(0L));
+  }
+
+  @Test
+  void givenOneOfTwoCallersCancelling_whenCompleting_thenCallIsKept() {
+    final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    final CompletableFuture<String> call = new CompletableFuture<>();
+
+    final CompletableFuture<String> first = singleFlight.execute("a", () -> call);
+    final CompletableFuture<String> second = singleFlight.execute("a", () -> call);
+    first.cancel(true);
+    call.complete("result");
+
+    assertThat(call.isCancelled(), is(false));
+    assertThat(second.join(), is("result"));
+  }
+
+  @Test
+  void givenAllCallersCancelling_whenCancelled_thenCallIsCancelled() {
+    final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+    final CompletableFuture<String> call = new CompletableFuture<>();
+
+    final CompletableFuture<String> first = singleFlight.execute("a", () -> call);
+    final CompletableFuture<String> second = singleFlight.execute("a", () -> call);
+    first.cancel(true);
+    second.cancel(true);
+
+    assertThat(call.isCancelled(), is(true));
+  }
+}
@@ -0,0 +1,70 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.impl;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.SolrConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SolrRepositoryTest {
+
+  private static final String FIRST_REPLICA = "http://first:8983/solr/core";
+  private static final String SECOND_REPLICA = "http://second:8983/solr/core";
+
+  private SolrRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    final SolrConfig solrConfig = new SolrConfig();
+    solrConfig.setCore("core");
+    solrConfig.setHosts(List.of("http://first:8983", "http://second:8983"));
+    repository = Mockito.spy(new SolrRepository(solrConfig, false));
+  }
+
+  @Test
+  void givenReplicasWithDifferentVersions_whenPollingRepeatedly_thenIndexVersionIsStable() {
+    Mockito.doReturn(5L).when(repository).getIndexVersion(FIRST_REPLICA);
+    Mockito.doReturn(7L).when(repository).getIndexVersion(SECOND_REPLICA);
+
+    final long version = repository.getIndexVersion();
+
+    assertThat(repository.getIndexVersion(), is(version));
+    assertThat(repository.getIndexVersion(), is(version));
+  }
+
+  @Test
+  void givenReplicasWithDifferentVersions_whenLaggingReplicaIsUpdated_thenIndexVersionChanges() {
+    Mockito.doReturn(7L).when(repository).getIndexVersion(FIRST_REPLICA);
+    Mockito.doReturn(5L).when(repository).getIndexVersion(SECOND_REPLICA);
+    final long version = repository.getIndexVersion();
+
+    Mockito.doReturn(7L).when(repository).getIndexVersion(SECOND_REPLICA);
+
+    assertThat(repository.getIndexVersion(), not(is(version)));
+  }
+
+  @Test
+  void givenUnavailableReplica_whenPolling_thenIndexVersionOfRemainingReplicaIsUsed() {
+    Mockito.doReturn(5L).when(repository).getIndexVersion(FIRST_REPLICA);
+    Mockito.doThrow(ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, "unavailable")).when(repository).getIndexVersion(SECOND_REPLICA);
+
+    final long version = repository.getIndexVersion();
+
+    assertThat(repository.getIndexVersion(), is(version));
+  }
+
+  @Test
+  void givenNoAvailableReplica_whenPolling_thenExceptionIsThrown() {
+    Mockito.doThrow(ExceptionFactory.getException(ExceptionType.SOLR_REQUEST, "unavailable")).when(repository).getIndexVersion(Mockito.anyString());
+
+    assertThrows(RuntimeException.class, () -> repository.getIndexVersion());
+  }
+}
@@ -0,0 +1,288 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.DeadlineConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.SpellCorrectionConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObject;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.SearchParams2SolrParamsConverter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl.BaseServiceImpl;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.Deadline;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.CommonParams;
+import org.apache.solr.common.params.CursorMarkParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class BaseServiceTest {
+
+  private static final String CORRECT_PHRASE = "correct";
+  private static final String MISSPELLED_PHRASE = "corect";
+
+  @Test
+  void givenMisspelledPhrase_whenSearching_thenSpellCorrectedSearchIsPerformedSubsequently() {
+    final SpellCorrectingService service = new SpellCorrectingService(false);
+
+    final Result<List<String>> result = service.find(getSearchParams());
+
+    assertThat(result.getPayload(), contains(CORRECT_PHRASE));
+    assertThat(service.searchedPhrases, contains(MISSPELLED_PHRASE, CORRECT_PHRASE));
+  }
+
+  @Test
+  void givenKnownMisspelledPhrase_whenSearchingSpeculatively_thenSpellCorrectedSearchIsUsed() {
+    final SpellCorrectingService service = new SpellCorrectingService(true);
+    mockAsyncSearch(service);
+    service.find(getSearchParams());
+    service.searchedPhrases.clear();
+
+    final SearchParams searchParams = getSearchParams();
+    final Result<List<String>> result = service.find(searchParams);
+
+    assertThat(result.getPayload(), contains(CORRECT_PHRASE));
+    assertThat(searchParams.getPhrase(), is(CORRECT_PHRASE));
+    assertThat(service.searchedPhrases, containsInAnyOrder(MISSPELLED_PHRASE, CORRECT_PHRASE));
+  }
+
+  @Test
+  void givenKnownMisspelledPhraseWithResults_whenSearchingSpeculatively_thenSpeculativeSolrRequestIsCancelled() {
+    final SpellCorrectingService service = new SpellCorrectingService(true);
+    final DiscoveryRepository repository = mockAsyncSearch(service);
+    service.find(getSearchParams());
+    final CompletableFuture<QueryResponse> speculativeRequest = new CompletableFuture<>();
+    Mockito.doReturn(speculativeRequest)
+        .when(repository)
+        .findByQueryAsync(Mockito.any());
+    service.correctPhrases.add(MISSPELLED_PHRASE);
+
+    final Result<List<String>> result = service.find(getSearchParams());
+
+    assertThat(result.getPayload(), contains(MISSPELLED_PHRASE));
+    assertThat(speculativeRequest.isCancelled(), is(true));
+  }
+
+  @Test
+  void givenCorrectPhrase_whenSearchingSpeculatively_thenNoSpellCorrectedSearchIsPerformed() {
+    final SpellCorrectingService service = new SpellCorrectingService(true);
+    final SearchParams searchParams = getSearchParams();
+    searchParams.setPhrase(CORRECT_PHRASE);
+
+    final Result<List<String>> result = service.find(searchParams);
+
+    assertThat(result.getPayload(), contains(CORRECT_PHRASE));
+    assertThat(service.searchedPhrases, contains(CORRECT_PHRASE));
+  }
+
+  @Test
+  void givenMisspelledPhrase_whenSearchingAsynchronously_thenSpellCorrectedSearchIsChained() {
+    final SpellCorrectingService service = new SpellCorrectingService(false);
+    mockAsyncSearch(service);
+
+    final SearchParams searchParams = getSearchParams();
+    final Result<List<String>> result = service.findAsync(searchParams).join();
+
+    assertThat(result.getPayload(), contains(CORRECT_PHRASE));
+    assertThat(searchParams.getPhrase(), is(CORRECT_PHRASE));
+    assertThat(service.searchedPhrases, contains(MISSPELLED_PHRASE, CORRECT_PHRASE));
+  }
+
+  @Test
+  void givenKnownMisspelledPhrase_whenSearchingAsynchronouslyAndSpeculatively_thenSpellCorrectedSearchIsUsed() {
+    final SpellCorrectingService service = new SpellCorrectingService(true);
+    mockAsyncSearch(service);
+    service.findAsync(getSearchParams()).join();
+    service.searchedPhrases.clear();
+
+    final SearchParams searchParams = getSearchParams();
+    final Result<List<String>> result = service.findAsync(searchParams).join();
+
+    assertThat(result.getPayload(), contains(CORRECT_PHRASE));
+    assertThat(searchParams.getPhrase(), is(CORRECT_PHRASE));
+    assertThat(service.searchedPhrases, containsInAnyOrder(MISSPELLED_PHRASE, CORRECT_PHRASE));
+  }
+
+  @Test
+  void givenKnownMisspelledPhraseWithResults_whenSearchingAsynchronouslyAndSpeculatively_thenSpeculativeSolrRequestIsCancelled() {
+    final SpellCorrectingService service = new SpellCorrectingService(true);
+    final DiscoveryRepository repository = mockAsyncSearch(service);
+    service.findAsync(getSearchParams()).join();
+    final CompletableFuture<QueryResponse> speculativeRequest = new CompletableFuture<>();
+    Mockito.doReturn(speculativeRequest)
+        .doAnswer(invocation -> CompletableFuture.completedFuture(service.respond(MISSPELLED_PHRASE)))
+        .when(repository)
+        .findByQueryAsync(Mockito.any());
+    service.correctPhrases.add(MISSPELLED_PHRASE);
+
+    final Result<List<String>> result = service.findAsync(getSearchParams()).join();
+
+    assertThat(result.getPayload(), contains(MISSPELLED_PHRASE));
+    assertThat(speculativeRequest.isCancelled(), is(true));
+  }
+
+  @Test
+  void givenPendingSolrRequest_whenAsynchronousSearchIsCancelled_thenSolrRequestIsCancelled() {
+    final SpellCorrectingService service = new SpellCorrectingService(false);
+    final DiscoveryRepository repository = Mockito.mock(DiscoveryRepository.class);
+    final SearchParams2SolrParamsConverter converter = Mockito.mock(SearchParams2SolrParamsConverter.class);
+    final CompletableFuture<QueryResponse> solrRequest = new CompletableFuture<>();
+    service.setSolrRepository(repository);
+    service.setSearchParams2SolrParamsConverter(converter);
+    Mockito.when(converter.convert(Mockito.any(), Mockito.any()))
+        .thenReturn(new ModifiableSolrParams());
+    Mockito.when(repository.findByQueryAsync(Mockito.any()))
+        .thenReturn(solrRequest);
+
+    service.findAsync(getSearchParams()).cancel(true);
+
+    assertThat(solrRequest.isCancelled(), is(true));
+  }
+
+  @Test
+  void givenDeadlineConfig_whenSearching_thenDeadlineIsSharedBySpellCorrectedSearch() {
+    final SpellCorrectingService service = new SpellCorrectingService(false);
+    service.setDeadlineConfig(new DeadlineConfig(true, Duration.ofSeconds(10)));
+    final SearchParams searchParams = getSearchParams();
+
+    service.find(searchParams);
+
+    assertThat(service.deadlines.size(), is(2));
+    assertThat(service.deadlines.get(0), notNullValue());
+    assertThat(service.deadlines.get(1), sameInstance(service.deadlines.get(0)));
+  }
+
+  @Test
+  void givenDeadlineExemptSearch_whenSearching_thenNoDeadlineIsApplied() {
+    final SpellCorrectingService service = new SpellCorrectingService(false);
+    service.setDeadlineConfig(new DeadlineConfig(true, Duration.ofSeconds(10)));
+    final SearchParams searchParams = getSearchParams();
+    searchParams.setDeadlineExempt(true);
+
+    service.find(searchParams);
+
+    assertThat(searchParams.getDeadline(), nullValue());
+    assertThat(service.deadlines, empty());
+  }
+
+  @Test
+  void givenMultiplePages_whenExporting_thenPagesAreConsumedUntilCursorStops() {
+    final BaseServiceImpl<HspObject> service = new BaseServiceImpl<>(Collections.emptyMap(), HspObject.class);
+    final DiscoveryRepository repository = Mockito.mock(DiscoveryRepository.class);
+    final SearchParams2SolrParamsConverter converter = Mockito.mock(SearchParams2SolrParamsConverter.class);
+    service.setSolrRepository(repository);
+    service.setSearchParams2SolrParamsConverter(converter);
+    Mockito.when(converter.convert(Mockito.any(), Mockito.any()))
+        .thenAnswer(invocation -> new ModifiableSolrParams().add(CursorMarkParams.CURSOR_MARK_PARAM, invocation.<SearchParams>getArgument(0).getCursorMark()));
+    Mockito.when(repository.findByQuery(Mockito.any()))
+        .thenAnswer(invocation -> switch (invocation.<SolrParams>getArgument(0).get(CursorMarkParams.CURSOR_MARK_PARAM)) {
+          case CursorMarkParams.CURSOR_MARK_START -> getCursorResponse("first", "id-1", "id-2");
+          case "first" -> getCursorResponse("second", "id-3");
+          default -> getCursorResponse("second");
+        });
+    final List<List<String>> pages = new ArrayList<>();
+
+    service.export(SearchParams.builder().withRows(2).build(), page -> pages.add(page.stream().map(HspObject::getId).toList()));
+
+    assertThat(pages, contains(List.of("id-1", "id-2"), List.of("id-3")));
+    Mockito.verify(repository, Mockito.times(3)).findByQuery(Mockito.any());
+  }
+
+  private static QueryResponse getCursorResponse(final String nextCursorMark, final String... ids) {
+    final SolrDocumentList documents = new SolrDocumentList();
+    for (String id : ids) {
+      final SolrDocument document = new SolrDocument();
+      document.setField("id", id);
+      documents.add(document);
+    }
+    final NamedList<Object> response = new NamedList<>();
+    response.add("response", documents);
+    response.add(CursorMarkParams.CURSOR_MARK_NEXT, nextCursorMark);
+    final QueryResponse queryResponse = new QueryResponse();
+    queryResponse.setResponse(response);
+    return queryResponse;
+  }
+
+  private static SearchParams getSearchParams() {
+    return SearchParams.builder()
+        .withPhrase(MISSPELLED_PHRASE)
+        .withRows(10)
+        .withUseSpellCorrection(true)
+        .build();
+  }
+
+  /**
+   * lets the asynchronous searches of {@code service} respond like its blocking ones
+   */
+  private static DiscoveryRepository mockAsyncSearch(final SpellCorrectingService service) {
+    final DiscoveryRepository repository = Mockito.mock(DiscoveryRepository.class);
+    final SearchParams2SolrParamsConverter converter = Mockito.mock(SearchParams2SolrParamsConverter.class);
+    service.setSolrRepository(repository);
+    service.setSearchParams2SolrParamsConverter(converter);
+    Mockito.when(converter.convert(Mockito.any(), Mockito.any()))
+        .thenAnswer(invocation -> new ModifiableSolrParams().add(CommonParams.Q, invocation.<SearchParams>getArgument(0).getPhrase()));
+    Mockito.when(repository.findByQueryAsync(Mockito.any()))
+        .thenAnswer(invocation -> CompletableFuture.completedFuture(service.respond(invocation.<SolrParams>getArgument(0).get(CommonParams.Q))));
+    return repository;
+  }
+
+  /**
+   * a service that finds its {@code correctPhrases} only, initially {@code CORRECT_PHRASE}, and suggests it as spell correction for any other phrase
+   */
+  private static class SpellCorrectingService extends BaseServiceImpl<String> {
+    final Set<String> correctPhrases = ConcurrentHashMap.newKeySet();
+    private final Map<QueryResponse, String> phrasesByResponse = new ConcurrentHashMap<>();
+    final List<String> searchedPhrases = new CopyOnWriteArrayList<>();
+    final List<Deadline> deadlines = new CopyOnWriteArrayList<>();
+
+    SpellCorrectingService(final boolean speculative) {
+      super(Collections.emptyMap(), String.class);
+      setSpellCorrectionConfig(new SpellCorrectionConfig(speculative, 10));
+      correctPhrases.add(CORRECT_PHRASE);
+    }
+
+    @Override
+    protected QueryResponse search(final SearchParams searchParams) {
+      if (searchParams.getDeadline() != null) {
+        deadlines.add(searchParams.getDeadline());
+      }
+      return respond(searchParams.getPhrase());
+    }
+
+    QueryResponse respond(final String phrase) {
+      final QueryResponse response = new QueryResponse();
+      phrasesByResponse.put(response, phrase);
+      searchedPhrases.add(phrase);
+      return response;
+    }
+
+    @Override
+    protected Result<List<String>> extractResult(final QueryResponse queryResponse) {
+      final String phrase = phrasesByResponse.get(queryResponse);
+      if (correctPhrases.contains(phrase)) {
+        return new Result<>(List.of(phrase), MetaData.builder().build());
+      }
+      return new Result<>(List.of(), MetaData.builder()
+          .withSpellCorrectedTerm(CORRECT_PHRASE)
+          .build());
+    }
+  }
+}
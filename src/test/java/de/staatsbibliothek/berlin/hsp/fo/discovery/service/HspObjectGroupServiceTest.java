@@ -0,0 +1,132 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ObjectGroupConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.exception.ExceptionFactory.InvalidParamException;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObjectGroup;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchParams;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.SearchParams2SolrParamsConverter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl.HspObjectGroupServiceImpl;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.type.HspType;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrDocumentList;
+import org.apache.solr.common.params.GroupParams;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HspObjectGroupServiceTest {
+
+  private HspObjectGroupServiceImpl service;
+  private SearchParams2SolrParamsConverter converter;
+  private DiscoveryRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    repository = Mockito.mock(DiscoveryRepository.class);
+    converter = Mockito.mock(SearchParams2SolrParamsConverter.class);
+    service = new HspObjectGroupServiceImpl();
+    service.setObjectGroupConfig(new ObjectGroupConfig(ObjectGroupConfig.SearchMode.TWO_PHASE, 20));
+    service.setSolrRepository(repository);
+    service.setSearchParams2SolrParamsConverter(converter);
+    Mockito.when(converter.convert(Mockito.any(), Mockito.any()))
+        .thenReturn(new ModifiableSolrParams());
+    Mockito.when(repository.findByQuery(Mockito.any()))
+        .thenReturn(getMembersResponse(42, "digitized-1", "digitized-2"));
+  }
+
+  @Test
+  void givenGroupId_whenFindingMembers_thenMembersAreFilteredByGroupIdAndSortedById() {
+    final Result<HspObjectGroup> result = service.findMembers("HSP-1", List.of(HspType.HSP_DIGITIZED.getValue()), 10, 2);
+
+    final ArgumentCaptor<SearchParams> captor = ArgumentCaptor.forClass(SearchParams.class);
+    Mockito.verify(converter).convert(captor.capture(), Mockito.any());
+    final SearchParams params = captor.getValue();
+    assertThat(params.getPhrase(), nullValue());
+    assertThat(params.getFilterQueries(), hasEntry("{!term f=group-id-facet}HSP-1", ""));
+    assertThat(params.getFilterQueries(), hasKey("type-facet:(\"hsp:digitized\")"));
+    assertThat(params.getSortPhrase(), is(SearchParams2SolrParamsConverter.UNIQUE_KEY_SORT));
+    assertThat(params.getStart(), is(10L));
+    assertThat(params.getRows(), is(2L));
+
+    assertThat(result.getPayload().getHspDigitizeds(), hasSize(2));
+    assertThat(result.getPayload().getMemberCount(), is(42L));
+  }
+
+  @Test
+  void givenRowsOutOfBounds_whenFindingMembers_thenInvalidParamExceptionIsThrown() {
+    assertThrows(InvalidParamException.class, () -> service.findMembers("HSP-1", List.of(), 0, 0));
+    assertThrows(InvalidParamException.class, () -> service.findMembers("HSP-1", List.of(), 0, 21));
+    assertThrows(InvalidParamException.class, () -> service.findMembers("HSP-1", List.of(), -1, 10));
+  }
+
+  @Test
+  void givenInvalidType_whenFindingMembers_thenInvalidParamExceptionIsThrown() {
+    assertThrows(InvalidParamException.class, () -> service.findMembers("HSP-1", List.of(HspType.HSP_OBJECT.getValue()), 0, 10));
+  }
+
+  @Test
+  void givenMatchingGroups_whenSearchingAsynchronously_thenCompletionIsChainedAndCancelledAlong() {
+    final CompletableFuture<QueryResponse> completion = new CompletableFuture<>();
+    Mockito.when(converter.convert(Mockito.any(), Mockito.any()))
+        .thenAnswer(invocation -> new ModifiableSolrParams().add(GroupParams.GROUP, String.valueOf(invocation.<SearchParams>getArgument(0).isGrouping())));
+    Mockito.when(repository.findByQueryAsync(Mockito.any()))
+        .thenAnswer(invocation -> invocation.<SolrParams>getArgument(0).getBool(GroupParams.GROUP) ? completion : CompletableFuture.completedFuture(getIdsResponse("HSP-1")));
+
+    final CompletableFuture<Result<List<HspObjectGroup>>> result = service.findAsync(SearchParams.builder().withPhrase("test").withRows(10).build());
+
+    Mockito.verify(repository, Mockito.timeout(1000).times(2)).findByQueryAsync(Mockito.any());
+    result.cancel(true);
+    assertThat(completion.isCancelled(), is(true));
+  }
+
+  @Test
+  void givenNoMatchingGroups_whenSearchingAsynchronously_thenNoCompletionIsPerformed() {
+    Mockito.when(repository.findByQueryAsync(Mockito.any()))
+        .thenReturn(CompletableFuture.completedFuture(getIdsResponse()));
+
+    final Result<List<HspObjectGroup>> result = service.findAsync(SearchParams.builder().withPhrase("test").withRows(10).build()).join();
+
+    assertThat(result.getPayload(), empty());
+    Mockito.verify(repository, Mockito.times(1)).findByQueryAsync(Mockito.any());
+  }
+
+  private static QueryResponse getIdsResponse(final String... groupIds) {
+    final SolrDocumentList documents = new SolrDocumentList();
+    documents.setNumFound(groupIds.length);
+    for (String groupId : groupIds) {
+      documents.add(new SolrDocument(Map.of("group-id-display", groupId)));
+    }
+    return toQueryResponse(documents);
+  }
+
+  private static QueryResponse getMembersResponse(final long numFound, final String... ids) {
+    final SolrDocumentList documents = new SolrDocumentList();
+    documents.setNumFound(numFound);
+    for (String id : ids) {
+      documents.add(new SolrDocument(Map.of("id", id, "type-display", HspType.HSP_DIGITIZED.getValue())));
+    }
+    return toQueryResponse(documents);
+  }
+
+  private static QueryResponse toQueryResponse(final SolrDocumentList documents) {
+    final NamedList<Object> response = new NamedList<>();
+    response.add("responseHeader", new NamedList<>(Map.of("params", new NamedList<>())));
+    response.add("response", documents);
+    return new QueryResponse(response, null);
+  }
+}
@@ -21,6 +21,7 @@ import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 
 @ExtendWith(SpringExtension.class)
 class InfoServiceTest  {
@@ -57,4 +58,31 @@ class InfoServiceTest  {
 
     assertThat(fields, containsInAnyOrder(new Field("id-search", false, FieldType.Type.TEXT, null)));
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenGetFieldsIsCalledTwice_thenMetadataIsRequestedOnce() {
+    List<FieldInformation> fieldInformationList = List.of(
+        new FieldInformation(false, false, "id-search", "text_general", null)
+    );
+    List<FieldTypeInformation> fieldTypeInformationList = List.of(
+        new FieldTypeInformation("solr.TextField", null, "text_general")
+    );
+    Mockito.when(this.fieldProvider.getFieldNames()).thenReturn(List.of("id-search"));
+    Mockito.when(this.discoveryRepository.getFieldInformation()).thenReturn(ResponseBuilder.getFieldsResponse(fieldInformationList));
+    Mockito.when(this.discoveryRepository.getFieldTypeInformation()).thenReturn(ResponseBuilder.getFieldsTypeResponse(fieldTypeInformationList));
+    Mockito.when(this.discoveryRepository.getEnumValues()).thenReturn(ResponseBuilder.getFileResponse("<?xml version=\"1.0\" ?><enumsConfig></enumsConfig>"));
+
+    infoService.warmUp();
+    final List<Field> fields = infoService.getFields();
+
+    assertThat(fields, containsInAnyOrder(new Field("id-search", false, FieldType.Type.TEXT, null)));
+    Mockito.verify(this.discoveryRepository, Mockito.times(1)).getEnumValues();
+  }
+
+  @Test
+  void givenUnavailableSolr_whenWarmingUp_thenNoExceptionIsThrown() {
+    Mockito.when(this.discoveryRepository.getFieldInformation()).thenThrow(new IllegalStateException("Solr is not available"));
+
+    assertDoesNotThrow(() -> infoService.warmUp());
+  }
+}
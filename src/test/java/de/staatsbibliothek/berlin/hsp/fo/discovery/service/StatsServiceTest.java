@@ -0,0 +1,134 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.InfoStatsConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.InfoStats;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.QueryResponse2ResponseEntityConverter;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.service.impl.StatsServiceImpl;
+import org.apache.solr.client.solrj.response.QueryResponse;
+import org.apache.solr.common.params.SolrParams;
+import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+
+class StatsServiceTest {
+
+  private DiscoveryRepository discoveryRepository;
+  private StatsServiceImpl statsService;
+
+  @BeforeEach
+  void setUp() {
+    discoveryRepository = Mockito.mock(DiscoveryRepository.class);
+    statsService = new StatsServiceImpl(discoveryRepository);
+    Mockito.when(discoveryRepository.findByQuery(any(SolrParams.class)))
+        .thenReturn(createResponse());
+  }
+
+  @Test
+  void whenGetStatsIsCalled_thenStatsAreComputedBySingleRequest() {
+    final InfoStats stats = statsService.getStats();
+
+    final ArgumentCaptor<SolrParams> captor = ArgumentCaptor.forClass(SolrParams.class);
+    Mockito.verify(discoveryRepository, Mockito.times(1)).findByQuery(captor.capture());
+    assertThat(captor.getValue().get("rows"), is("0"));
+    assertThat(captor.getValue().get("json.facet"), containsString("\"field\":\"repository-id-facet\""));
+
+    assertThat(stats.getKod().getAll(), is(3L));
+    assertThat(stats.getKod().getInstitution(), is(Map.of("test repo 1", 1L, "test repo 2", 2L)));
+    assertThat(stats.getDigitized().getAll(), is(19L));
+    assertThat(stats.getDigitized().getInstitution(), is(Map.of("test repo 9", 9L, "test repo 10", 10L)));
+    assertThat(stats.getCatalog().getAll(), is(25L));
+    assertThat(stats.getCatalog().getInstitution(), is(Map.of("test repo 11", 11L, "test repo 12", 12L, QueryResponse2ResponseEntityConverter.FIELD_NAME_MISSING, 2L)));
+    assertThat(stats.getDescription().getAll(), is(33L));
+    assertThat(stats.getDescription().getRetro(), is(7L));
+    assertThat(stats.getDescription().getExtern(), is(11L));
+    assertThat(stats.getDescription().getIntern(), is(15L));
+    assertThat(stats.getDescription().getInstitution(), allOf(hasEntry("test repo 3", 3L), hasEntry("test repo 6", 6L), hasEntry("test repo 8", 8L)));
+  }
+
+  @Test
+  void givenMissingRepository_whenGetStatsIsCalled_thenMissingCountIsIncluded() {
+    final InfoStats stats = statsService.getStats();
+
+    assertThat(stats.getCatalog().getInstitution(), hasEntry(QueryResponse2ResponseEntityConverter.FIELD_NAME_MISSING, 2L));
+    assertThat(stats.getKod().getInstitution(), not(hasKey(QueryResponse2ResponseEntityConverter.FIELD_NAME_MISSING)));
+  }
+
+  @Test
+  void givenRecentSnapshot_whenGetStatsIsCalledAgain_thenSnapshotIsServed() {
+    final InfoStats first = statsService.getStats();
+    final InfoStats second = statsService.getStats();
+
+    assertThat(second, sameInstance(first));
+    Mockito.verify(discoveryRepository, Mockito.times(1)).findByQuery(any(SolrParams.class));
+  }
+
+  @Test
+  void givenOutdatedSnapshot_whenGetStatsIsCalled_thenSnapshotIsServedAndRefreshedInBackground() {
+    statsService.setInfoStatsConfig(new InfoStatsConfig(Duration.ZERO));
+    final InfoStats first = statsService.getStats();
+    final InfoStats second = statsService.getStats();
+
+    assertThat(second, sameInstance(first));
+    Mockito.verify(discoveryRepository, Mockito.timeout(1000).times(2)).findByQuery(any(SolrParams.class));
+  }
+
+  private static QueryResponse createResponse() {
+    final NamedList<Object> types = bucketFacet(
+        bucket("hsp:object", 3, "repositories", repositories(0, "test repo 1", 1, "test repo 2", 2)),
+        bucket("hsp:description_retro", 7, "repositories", repositories(0, "test repo 3", 3, "test repo 4", 4)),
+        bucket("hsp:description", 26, "status", bucketFacet(
+            bucket("extern", 11, "repositories", repositories(0, "test repo 5", 5, "test repo 6", 6)),
+            bucket("intern", 15, "repositories", repositories(0, "test repo 7", 7, "test repo 8", 8)))),
+        bucket("hsp:digitized", 19, "repositories", repositories(0, "test repo 9", 9, "test repo 10", 10)),
+        bucket("hsp:catalog", 25, "repositories", repositories(2, "test repo 11", 11, "test repo 12", 12)));
+
+    final NamedList<Object> facets = new SimpleOrderedMap<>();
+    facets.add("count", 80);
+    facets.add("types", types);
+    final NamedList<Object> response = new NamedList<>();
+    response.add("facets", facets);
+    return new QueryResponse(response, null);
+  }
+
+  private static NamedList<Object> bucket(final String value, final long count, final String facetName, final NamedList<Object> facet) {
+    final NamedList<Object> bucket = new SimpleOrderedMap<>();
+    bucket.add("val", value);
+    bucket.add("count", count);
+    bucket.add(facetName, facet);
+    return bucket;
+  }
+
+  @SafeVarargs
+  private static NamedList<Object> bucketFacet(final NamedList<Object>... buckets) {
+    final NamedList<Object> facet = new SimpleOrderedMap<>();
+    facet.add("buckets", List.of(buckets));
+    return facet;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static NamedList<Object> repositories(final long missing, final Object... valuesAndCounts) {
+    final NamedList<Object>[] buckets = new NamedList[valuesAndCounts.length / 2];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new SimpleOrderedMap<>();
+      buckets[i].add("val", valuesAndCounts[2 * i]);
+      buckets[i].add("count", ((Number) valuesAndCounts[2 * i + 1]).longValue());
+    }
+    final NamedList<Object> facet = bucketFacet(buckets);
+    final NamedList<Object> missingBucket = new SimpleOrderedMap<>();
+    missingBucket.add("count", missing);
+    facet.add("missing", missingBucket);
+    return facet;
+  }
+}
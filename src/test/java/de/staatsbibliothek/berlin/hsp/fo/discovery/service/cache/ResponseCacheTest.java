@@ -0,0 +1,167 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service.cache;
+
+import de.staatsbibliothek.berlin.hsp.fo.discovery.config.ResponseCacheConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.Result;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.persistence.DiscoveryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.solr.common.params.ModifiableSolrParams;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class ResponseCacheTest {
+
+  private final DiscoveryRepository discoveryRepository = Mockito.mock(DiscoveryRepository.class);
+
+  @Test
+  void givenSameParamsInDifferentOrder_whenGettingTwice_thenLoaderIsCalledOnce() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofHours(1)));
+    final AtomicInteger loads = new AtomicInteger();
+
+    final String first = cache.get("test", params("q", "a", "rows", "10"), () -> "result " + loads.incrementAndGet());
+    final String second = cache.get("test", params("rows", "10", "q", "a"), () -> "result " + loads.incrementAndGet());
+
+    assertThat(first, is("result 1"));
+    assertThat(second, is("result 1"));
+    assertThat(loads.get(), is(1));
+  }
+
+  @Test
+  void givenDifferentNamespaces_whenGetting_thenResultsAreCachedSeparately() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofHours(1)));
+
+    cache.get("find", params("q", "a"), () -> "find");
+    final String result = cache.get("metadata", params("q", "a"), () -> "metadata");
+
+    assertThat(result, is("metadata"));
+  }
+
+  @Test
+  void givenExceededWeight_whenPutting_thenLeastRecentlyUsedEntriesAreEvicted() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 6, Duration.ofHours(1)));
+    final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    cache.bindTo(registry);
+
+    cache.get("test", params("q", "a"), () -> new Result<>(List.of(1, 2)));
+    cache.get("test", params("q", "b"), () -> new Result<>(List.of(1, 2)));
+    cache.get("test", params("q", "a"), () -> new Result<>(List.of()));
+    cache.get("test", params("q", "c"), () -> new Result<>(List.of(1, 2)));
+
+    final Result<List<Integer>> a = cache.get("test", params("q", "a"), () -> new Result<>(List.of()));
+    final Result<List<Integer>> b = cache.get("test", params("q", "b"), () -> new Result<>(List.of()));
+
+    assertThat(a.getPayload().size(), is(2));
+    assertThat(b.getPayload().size(), is(0));
+    assertThat(registry.get("cache.evictions").functionCounter().count() >= 1, is(true));
+    assertThat(registry.get("cache.gets").tag("result", "hit").functionCounter().count(), is(2.0));
+  }
+
+  @Test
+  void givenChangedIndexVersion_whenGetting_thenCacheIsInvalidated() throws InterruptedException {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofMillis(10)));
+    Mockito.when(discoveryRepository.getIndexVersion()).thenReturn(1L);
+    cache.startPolling();
+    try {
+      awaitResult(cache, "old");
+
+      Mockito.when(discoveryRepository.getIndexVersion()).thenReturn(2L);
+
+      assertThat(awaitResult(cache, "new"), is("new"));
+    } finally {
+      cache.stopPolling();
+    }
+  }
+
+  @Test
+  void givenStartedPolling_whenIdle_thenIndexVersionIsPolledWithoutAccess() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofHours(1)));
+    Mockito.when(discoveryRepository.getIndexVersion()).thenReturn(1L);
+
+    cache.startPolling();
+    try {
+      Mockito.verify(discoveryRepository, Mockito.timeout(1000)).getIndexVersion();
+    } finally {
+      cache.stopPolling();
+    }
+  }
+
+  @Test
+  void givenFailingPoll_whenPollIsOverdue_thenNoEntriesAreServed() throws InterruptedException {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofMillis(10)));
+    Mockito.when(discoveryRepository.getIndexVersion()).thenThrow(new IllegalStateException("unreachable"));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.startPolling();
+    try {
+      Thread.sleep(50);
+      cache.get("test", params("q", "a"), loads::incrementAndGet);
+      cache.get("test", params("q", "a"), loads::incrementAndGet);
+    } finally {
+      cache.stopPolling();
+    }
+
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  void givenDisabledCache_whenGettingTwice_thenLoaderIsCalledTwice() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(false, 100, Duration.ofHours(1)));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get("test", params("q", "a"), loads::incrementAndGet);
+    cache.get("test", params("q", "a"), loads::incrementAndGet);
+
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  void givenDifferentTimeAllowed_whenGettingTwice_thenLoaderIsCalledOnce() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofHours(1)));
+    final AtomicInteger loads = new AtomicInteger();
+
+    cache.get("test", params("q", "a", "timeAllowed", "1000"), loads::incrementAndGet);
+    cache.get("test", params("q", "a", "timeAllowed", "900"), loads::incrementAndGet);
+
+    assertThat(loads.get(), is(1));
+  }
+
+  @Test
+  void givenPartialResult_whenGettingTwice_thenResultIsNotCached() {
+    final ResponseCache cache = new ResponseCache(discoveryRepository, new ResponseCacheConfig(true, 100, Duration.ofHours(1)));
+    final AtomicInteger loads = new AtomicInteger();
+    final Supplier<Result<List<Integer>>> loader = () -> new Result<>(List.of(loads.incrementAndGet()), MetaData.builder()
+        .withPartialResults(true)
+        .build());
+
+    cache.get("test", params("q", "a"), loader);
+    cache.get("test", params("q", "a"), loader);
+
+    assertThat(loads.get(), is(2));
+  }
+
+  /* the index version is polled in the background, so the expected result is awaited */
+  private static String awaitResult(final ResponseCache cache, final String expected) throws InterruptedException {
+    String result = null;
+    for (int i = 0; i < 100 && !expected.equals(result); i++) {
+      result = cache.get("test", params("q", "a"), () -> expected);
+      Thread.sleep(10);
+    }
+    return result;
+  }
+
+  private static ModifiableSolrParams params(final String... namesAndValues) {
+    final ModifiableSolrParams params = new ModifiableSolrParams();
+    for (int i = 0; i < namesAndValues.length; i += 2) {
+      params.add(namesAndValues[i], namesAndValues[i + 1]);
+    }
+    return params;
+  }
+}
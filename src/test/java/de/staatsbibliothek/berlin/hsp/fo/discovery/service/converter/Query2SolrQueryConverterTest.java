@@ -9,6 +9,7 @@ import java.util.Map;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 
 class Query2SolrQueryConverterTest {
   private final Query2SolrQueryConverter query2SolrQueryConverter;
@@ -181,4 +182,16 @@ class Query2SolrQueryConverterTest {
 
     assertThat(actualTerm, is("_query_:\"{!complexphrase}foo:bar\""));
   }
+
+  @Test
+  void givenConvertedQuery_whenConvertingAgain_thenCachedConversionIsCopied() {
+    final Query2SolrQueryConverter.SolrQueryParams first = query2SolrQueryConverter.convert("\"exact term\"", List.of("field-search"), false, true);
+    first.setQuery("changed");
+
+    final Query2SolrQueryConverter.SolrQueryParams second = query2SolrQueryConverter.convert("\"exact term\"", List.of("field-search"), false, true);
+
+    assertThat(second.getQuery().contains("field-search-exact"), is(true));
+    assertThat(second.getTokens(), sameInstance(first.getTokens()));
+    assertThat(second.getQueryType(), is(QueryType.EXACT));
+  }
 }
@@ -26,6 +26,7 @@ package de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.config.HighlightConfig;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.dto.MetaData;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspDescription;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspDigitized;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObject;
@@ -34,6 +35,7 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.testutil.SolrResponse;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.type.HspType;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.util.NamedList;
+import org.apache.solr.common.util.SimpleOrderedMap;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -106,6 +108,18 @@ class QueryResponse2ResponseEntityConverterTest {
       assertThat(QueryResponse2ResponseEntityConverter.extractNumFound(queryResponse), is(1L));
     }
 
+    @Test
+    void whenExtractingMetadataFromPartialResponse_thenPartialResultsIsTrue() {
+      final NamedList<Object> header = new SimpleOrderedMap<>();
+      header.add("partialResults", true);
+      final NamedList<Object> response = new NamedList<>();
+      response.add("responseHeader", header);
+
+      final MetaData metaData = QueryResponse2ResponseEntityConverter.extractMetadata(new QueryResponse(response, null), highlightConfig);
+
+      assertThat(metaData.isPartialResults(), is(true));
+    }
+
     @Test
     void whenExtractingSpellCorrectedTerm_thenValueIsCorrect() throws Exception {
       final QueryResponse queryResponse = new SolrResponse.Builder()
@@ -168,6 +182,29 @@ class QueryResponse2ResponseEntityConverterTest {
       assertThat(hspDescriptions, hasSize(1));
       assertThat(desc, is(hspDescriptions.get(0)));
     }
+
+    @Test
+    void givenExpandedResponse_whenExtractingHspObjectGroups_thenGroupsAreCompletedByExpandedDocuments() throws Exception {
+      hspObjectGroup.getHspObject().setId("id123");
+      hspObjectGroup.getHspObject().setGroupId("groupId123");
+      final HspDescription desc = hspObjectGroup.getHspDescriptions().get(0);
+      desc.setId("id456");
+      desc.setGroupId("groupId123");
+
+      final QueryResponse queryResponse = new SolrResponse.Builder()
+          .withExpandedHspObjectGroups(hspObjectGroup)
+          .build()
+          .convert();
+
+      final List<HspObjectGroup> hspObjectGroups =
+          QueryResponse2ResponseEntityConverter.getExpandedHspObjectGroups(queryResponse);
+
+      assertThat(hspObjectGroups, hasSize(1));
+      assertThat(hspObjectGroups.get(0).getHspObject().getId(), is("id123"));
+      assertThat(hspObjectGroups.get(0).getHspDescriptions(), contains(desc));
+      assertThat(hspObjectGroups.get(0).getHspDigitizeds(), hasSize(1));
+      assertThat(hspObjectGroups.get(0).getMemberCount(), is(2L));
+    }
   }
 
   @Nested
@@ -29,10 +29,13 @@ import de.staatsbibliothek.berlin.hsp.fo.discovery.service.BaseService.SearchPar
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.rsql.RsqlToQueryParamsConverter;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter.rsql.SolrVisitor;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.testutil.ConfigBuilder;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.type.SortField;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.util.Deadline;
 import de.staatsbibliothek.berlin.hsp.fo.discovery.util.FieldProvider;
 import org.apache.solr.common.params.SolrParams;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -80,6 +83,40 @@ class SearchParams2SolrParamsConverterTest {
     assertThat(solrParams.toString().contains("start=1&rows=13"), is(true));
   }
 
+  @Test
+  void whenCursorMarkIsGiven_QueryContainsCursorMarkAndUniqueKeySort() {
+    final SearchParams params = SearchParams.builder()
+        .withCursorMark("*")
+        .withRows(13)
+        .withSortPhrase(SortField.MS_IDENTIFIER_ASC.getSortPhrase())
+        .withStart(20)
+        .build();
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.get("cursorMark"), is("*"));
+    assertThat(solrParams.get("sort"), is(SortField.MS_IDENTIFIER_ASC.getSortPhrase() + ",id asc"));
+    assertThat(solrParams.get("start"), is("0"));
+  }
+
+  @Test
+  void whenDeadlineIsGiven_QueryContainsTimeAllowed() {
+    final SearchParams params = SearchParams.builder()
+        .withDeadline(Deadline.after(Duration.ofSeconds(10)))
+        .withPhrase("test")
+        .build();
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.getLong("timeAllowed"), allOf(greaterThan(0L), lessThanOrEqualTo(10000L)));
+  }
+
+  @Test
+  void whenDeadlineIsExpired_QueryContainsMinimalTimeAllowed() {
+    final SearchParams params = SearchParams.builder()
+        .withDeadline(Deadline.after(Duration.ZERO))
+        .withPhrase("test")
+        .build();
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.getLong("timeAllowed"), is(1L));
+  }
+
   @Test
   void whenHighlightingIsTrue_QueryContainsHighlightingParameters() {
     SolrParams solrParams;
@@ -175,6 +212,36 @@ class SearchParams2SolrParamsConverterTest {
     assertThat(solrParams.toString().contains("group.ngroups="), is(false));
   }
 
+  @Test
+  void whenGroupLimitIsGiven_QueryContainsGroupLimit() {
+    final SearchParams params = SearchParams.builder()
+        .withGrouping(true)
+        .withGroupLimit(25)
+        .withPhrase("test")
+        .build();
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.toString().contains("group.limit=25"), is(true));
+  }
+
+  @Test
+  void whenExpandIsTrue_QueryContainsExpandParameters() {
+    SearchParams params = SearchParams.builder()
+        .withCollapse(true)
+        .withExpand(true)
+        .withPhrase("test")
+        .build();
+    SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.toString().contains("expand=true"), is(true));
+    assertThat(solrParams.toString().contains("expand.rows=100"), is(true));
+
+    params = SearchParams.builder()
+        .withCollapse(true)
+        .withPhrase("test")
+        .build();
+    solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.toString().contains("expand"), is(false));
+  }
+
   @Test
   void whenFilterQueriesAreProvided_QueryContainsFilterQueriesWithExclusionTags() {
     SearchParams params;
@@ -194,6 +261,18 @@ class SearchParams2SolrParamsConverterTest {
     assertThat(solrParams.toString().contains("fq={!tag%3Dsolr_fq_material-facet}material-facet:paper"), is(true));
   }
 
+  @Test
+  void givenFilterQueryWithLocalParams_whenConverting_thenTagIsMergedIntoLocalParams() {
+    final SearchParams params = SearchParams.builder()
+        .withPhrase("test")
+        .withFilterQueries(Map.of("{!cache=false cost=50}leaves-count-facet:[1 TO 10]", "leaves-count-facet"))
+        .build();
+
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+
+    assertThat(solrParams.get("fq"), is("{!tag=solr_fq_leaves-count-facet cache=false cost=50}leaves-count-facet:[1 TO 10]"));
+  }
+
   @Test
   void whenFacetsAreConfigured_QueryContainsTaggedFacets() {
     SearchParams params;
@@ -273,6 +352,15 @@ class SearchParams2SolrParamsConverterTest {
     assertThat(solrParams.toString().contains("sort=orig-date-to-sort+desc"), is(true));
   }
 
+  @Test
+  void whenUniqueKeySortIsProvided_QueryContainsSortParam() {
+    final SearchParams params = SearchParams.builder()
+        .withSortPhrase(SearchParams2SolrParamsConverter.UNIQUE_KEY_SORT)
+        .build();
+    final SolrParams solrParams = searchParams2SolrParamsConverter.convert(params, highlightConfig);
+    assertThat(solrParams.get("sort"), is("id asc"));
+  }
+
   @Test
   void whenInvalidSortPhraseIsProvided_QueryContainsNoSortParam() {
     SearchParams params;
@@ -0,0 +1,127 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.service.converter;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspDescription;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspDigitized;
+import de.staatsbibliothek.berlin.hsp.fo.discovery.model.HspObject;
+import org.apache.solr.common.SolrDocument;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SolrDocumentBinderTest {
+
+  private static final ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+  static {
+    mapper.setDateFormat(new SimpleDateFormat("E MMM dd HH:mm:ss z yyyy", Locale.ENGLISH));
+  }
+
+  @Test
+  void givenSolrDocument_whenBinding_thenResultEqualsJsonMapping() throws Exception {
+    final SolrDocument doc = new SolrDocument();
+    doc.setField("id-display", "HSP-123");
+    doc.setField("group-id-display", "HSP-123");
+    doc.setField("type-display", "hsp:description");
+    doc.setField("author-display", List.of("Katrin Sturm", "Glenn Fischer"));
+    doc.setField("publish-year-display", 1999);
+    doc.setField("settlement-display", "Leipzig");
+    doc.setField("unknown-display", "ignored");
+
+    final HspDescription bound = SolrDocumentBinder.forClass(mapper, HspDescription.class).bind(doc);
+
+    assertThat(bound.getId(), is("HSP-123"));
+    assertThat(bound.getAuthors(), arrayContaining("Katrin Sturm", "Glenn Fischer"));
+    assertThat(bound.getPublishDate(), is(1999));
+    assertThat(bound, is(mapper.readValue(doc.jsonStr(), HspDescription.class)));
+  }
+
+  @Test
+  void givenDateValues_whenBinding_thenDatesAreBound() throws Exception {
+    final Calendar cal = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+    cal.clear();
+    cal.set(2020, Calendar.SEPTEMBER, 4);
+
+    final SolrDocument doc = new SolrDocument();
+    doc.setField("id-display", "HSP-456");
+    doc.setField("digitization-date-display", cal.getTime());
+    doc.setField("issuing-date-display", cal.getTimeInMillis());
+
+    final HspDigitized bound = SolrDocumentBinder.forClass(mapper, HspDigitized.class).bind(doc);
+
+    assertThat(bound.getDigitizationDate(), is(cal.getTime()));
+    assertThat(bound.getIssuingDate(), is(cal.getTime()));
+    assertThat(bound, is(mapper.readValue(doc.jsonStr(), HspDigitized.class)));
+  }
+
+  @Test
+  void givenCollectionWithMixedTypes_whenBinding_thenPropertyDeserializerIsUsed() throws Exception {
+    final SolrDocument doc = new SolrDocument();
+    doc.setField("id-display", "HSP-789");
+    doc.setField("language-display", List.of("de", 1));
+
+    final HspObject bound = SolrDocumentBinder.forClass(mapper, HspObject.class).bind(doc);
+
+    assertThat(bound.getLanguage(), arrayContaining("de", "1"));
+    assertThat(bound, is(mapper.readValue(doc.jsonStr(), HspObject.class)));
+  }
+
+  @Test
+  void givenGenericCollectionProperty_whenBinding_thenElementsAreDeserialized() throws Exception {
+    final SolrDocument doc = new SolrDocument();
+    doc.setField("numbers", List.of("1", "2"));
+
+    final Bean bound = SolrDocumentBinder.forClass(mapper, Bean.class).bind(doc);
+
+    assertThat(bound.numbers, contains(1, 2));
+  }
+
+  @Test
+  void givenPropertyWithCustomDeserializer_whenBinding_thenCustomDeserializerIsUsed() throws Exception {
+    final SolrDocument doc = new SolrDocument();
+    doc.setField("name", "hsp");
+
+    final Bean bound = SolrDocumentBinder.forClass(mapper, Bean.class).bind(doc);
+
+    assertThat(bound.name, is("HSP"));
+  }
+
+  @Test
+  void givenDifferentMappers_whenGettingBinders_thenBindersAreNotShared() {
+    final ObjectMapper otherMapper = new ObjectMapper();
+
+    assertThat(SolrDocumentBinder.forClass(mapper, Bean.class), sameInstance(SolrDocumentBinder.forClass(mapper, Bean.class)));
+    assertThat(SolrDocumentBinder.forClass(otherMapper, Bean.class), not(sameInstance(SolrDocumentBinder.forClass(mapper, Bean.class))));
+  }
+
+  static class Bean {
+    @JsonProperty
+    List<Integer> numbers;
+
+    @JsonDeserialize(using = UpperCaseDeserializer.class)
+    @JsonProperty
+    String name;
+  }
+
+  static class UpperCaseDeserializer extends JsonDeserializer<String> {
+    @Override
+    public String deserialize(final JsonParser parser, final DeserializationContext ctxt) throws IOException {
+      return parser.getValueAsString().toUpperCase(Locale.ROOT);
+    }
+  }
+}
@@ -52,9 +52,11 @@ public class SolrResponse {
   private static final String FIELD_NAME_PARAMS = "params";
   private static final String FIELD_NAME_FACET_INFO = "facet_counts";
   private static final String FIELD_NAME_FACET_FIELDS = "facet_fields";
+  private static final String FIELD_NAME_EXPANDED = "expanded";
   private static final String HEADER_NAME_GROUP = "group";
 
   private final NamedList<String> exception;
+  private final boolean expanded;
   private final NamedList<NamedList<Number>> facets;
   private final SimpleOrderedMap<NamedList<List<String>>> highlightingFragments;
   private final HspObjectGroup[] hspObjectGroups;
@@ -72,6 +74,7 @@ public class SolrResponse {
 
   private SolrResponse(final Builder builder) {
     this.exception = builder.exception;
+    this.expanded = builder.expanded;
     this.facets = builder.facets;
     this.highlightingFragments = builder.highlightingFragments;
     this.hspObjectGroups = builder.hspObjectGroups;
@@ -82,6 +85,7 @@ public class SolrResponse {
   
   public static final class Builder {
     private NamedList<String> exception;
+    private boolean expanded;
     private NamedList<NamedList<Number>> facets;
     private SimpleOrderedMap<NamedList<List<String>>> highlightingFragments;
     private HspObjectGroup[] hspObjectGroups;
@@ -102,6 +106,12 @@ public class SolrResponse {
       return this;
     }
     
+    public Builder withExpandedHspObjectGroups(final HspObjectGroup... hspObjectGroup) {
+      this.hspObjectGroups = hspObjectGroup;
+      this.expanded = true;
+      return this;
+    }
+
     public Builder withTeiDocumentObjects(TestHspObject... teiDocumentObjects) {
       this.teiDocumentObjects = teiDocumentObjects;
       return this;
@@ -146,7 +156,25 @@ public class SolrResponse {
     final SolrDocumentList documentList = new SolrDocumentList();
     final NamedList<Object> responseHeaders = new NamedList<>();
     
-    if (this.hspObjectGroups != null && this.hspObjectGroups.length > 0) {
+    if (this.expanded && this.hspObjectGroups != null) {
+      this.params.add(HEADER_NAME_GROUP, "false");
+      final NamedList<Object> expandedInfo = new NamedList<>();
+
+      for (HspObjectGroup hspObjectGroup : this.hspObjectGroups) {
+        final String tmpJson = mapper.writeValueAsString(hspObjectGroup);
+        final SolrDocumentList docList = mapper.readValue(tmpJson, SolrDocumentList.class);
+        docList.forEach(this::manipulateTechnicalFields);
+
+        // the first document represents the collapsed group head, the remaining ones are expanded
+        documentList.add(docList.get(0));
+        final SolrDocumentList expandedList = new SolrDocumentList();
+        expandedList.addAll(docList.subList(1, docList.size()));
+        expandedList.setNumFound(expandedList.size());
+        expandedInfo.add(hspObjectGroup.getHspObject().getGroupId(), expandedList);
+      }
+      documentList.setNumFound(documentList.size());
+      responseItems.add(FIELD_NAME_EXPANDED, expandedInfo);
+    } else if (this.hspObjectGroups != null && this.hspObjectGroups.length > 0) {
       this.params.add(HEADER_NAME_GROUP, "true");
       final SimpleOrderedMap<Object> fieldGroups = new SimpleOrderedMap<>();
       final NamedList<Object> groupedInfo = new NamedList<>();
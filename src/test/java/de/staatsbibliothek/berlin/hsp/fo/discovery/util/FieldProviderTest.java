@@ -5,10 +5,12 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.github.npathai.hamcrestopt.OptionalMatchers.isPresentAndIs;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.MatcherAssert.assertThat;
 
 class FieldProviderTest {
@@ -48,4 +50,30 @@ class FieldProviderTest {
 
     assertThat(result, is("test-search"));
   }
+
+  @Test
+  void givenFieldGroup_whenGettingExactNames_thenResolvedNamesAreReused() {
+    final FieldProvider fieldProvider = ConfigBuilder.getFieldProvider(List.of("field-search^10", "field-search-exact^5", "other-search", "other-search-exact"),
+        Map.of("FIELD-GROUP-ALL", List.of("field-search", "other-search")));
+
+    final List<String> first = fieldProvider.getExactNames(fieldProvider.getFieldNamesForGroupAll());
+    final List<String> second = fieldProvider.getExactNames(List.of("field-search", "other-search"));
+
+    assertThat(first, is(List.of("field-search-exact^5", "other-search-exact")));
+    assertThat(second, sameInstance(first));
+  }
+
+  @Test
+  void givenUnknownAndUnboostedFields_whenGettingBasicNames_thenOnlyKnownFieldsAreResolved() {
+    final FieldProvider fieldProvider = ConfigBuilder.getFieldProvider(List.of("field-search", "field-search-exact^5"), Collections.emptyMap());
+
+    assertThat(fieldProvider.getBasicNames(List.of("unknown-search", "field-search")), is(List.of("field-search")));
+    assertThat(fieldProvider.getStemmedNames(List.of("field-search")), is(List.of()));
+  }
+
+  @Test
+  void givenBoostedFieldName_whenRemovingBoostingFactor_thenFactorIsRemoved() {
+    assertThat(FieldProvider.removeBoostingFactor("field-search-exact^5"), is("field-search-exact"));
+    assertThat(FieldProvider.removeBoostingFactor("field-search"), is("field-search"));
+  }
 }
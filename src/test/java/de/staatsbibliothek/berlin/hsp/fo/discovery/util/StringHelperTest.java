@@ -42,6 +42,23 @@ class StringHelperTest {
 
     assertThat(result, is(11));
   }
+
+  @Test
+  void givenWhitespaceDividers_whenBoundariesAreCalculated_thenDividersAreRecognized() {
+    final String text = "Lorem\tIpsum\nDolor\r\nSit";
+
+    assertThat(StringHelper.leftBoundary(text, 1, 12), is(6));
+    assertThat(StringHelper.rightBoundary(text, 12, 20), is(17));
+  }
+
+  @Test
+  void givenNonAsciiCharacters_whenBoundariesAreCalculated_thenTheyAreNoDividers() {
+    final String text = "Straße Über Öl";
+
+    assertThat(StringHelper.leftBoundary(text, 1, 14), is(7));
+    assertThat(StringHelper.rightBoundary(text, 0, 10), is(6));
+  }
+
   @Test
   void givenBoostedString_whenRemovingBoosting_thenBoostingIsRemoved() {
     final String str = "repository-search^100";
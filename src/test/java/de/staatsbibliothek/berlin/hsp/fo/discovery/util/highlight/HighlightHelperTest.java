@@ -87,4 +87,20 @@ class HighlightHelperTest {
 
     assertThat(result, contains(highlightList.toArray()));
   }
-}
\ No newline at end of file
+
+  @Test
+  void whenGatheringHighlightPositions_thenPositionsWithAndWithoutTagsAreCorrect() {
+    final String highlightedText = "foo <em>bar</em> baz <em>qux</em>";
+
+    assertThat(HighlightHelper.gatherHighlightPositions(highlightedText, TAG_NAME, true), arrayContaining(new Interval(4, 7), new Interval(12, 15)));
+    assertThat(HighlightHelper.gatherHighlightPositions(highlightedText, TAG_NAME, false), arrayContaining(new Interval(4, 16), new Interval(21, 33)));
+  }
+
+  @Test
+  void whenRemovingHighlightingWithUnclosedTag_thenUnclosedTagIsPreserved() {
+    final String highlightedText = "<em>foo</em> bar <em>baz";
+
+    assertThat(HighlightHelper.removeHighlighting(highlightedText, TAG_NAME), is("foo bar <em>baz"));
+    assertThat(HighlightHelper.addHighlighting("foo bar baz", TAG_NAME, new Interval[]{new Interval(0, 3), new Interval(8, 11)}), is("<em>foo</em> bar <em>baz</em>"));
+  }
+}
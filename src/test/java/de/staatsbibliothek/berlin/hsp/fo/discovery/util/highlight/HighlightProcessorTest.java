@@ -0,0 +1,44 @@
+package de.staatsbibliothek.berlin.hsp.fo.discovery.util.highlight;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class HighlightProcessorTest {
+
+  private static final String TAG_NAME = "em";
+
+  @Test
+  void givenFieldsWithSuffix_whenProcessing_thenFieldsAreMergedAndFragmented() {
+    final Map<String, List<String>> highlighting = Map.of(
+        "fulltext-search", List.of("Lorem <em>ipsum</em> dolor sit amet, consetetur sadipscing elitr, sed diam"),
+        "fulltext-search-stemmed", List.of("Lorem ipsum <em>dolor</em> sit amet, consetetur sadipscing elitr, sed <em>diam</em>")
+    );
+
+    final Map<String, List<String>> result = HighlightProcessor.process(highlighting, TAG_NAME, 6);
+
+    assertThat(result, aMapWithSize(1));
+    assertThat(result.get("fulltext-search"), contains("Lorem <em>ipsum dolor</em> sit", "sed <em>diam</em>"));
+  }
+
+  @Test
+  void givenSingleField_whenProcessing_thenResultEqualsSeparatePipeline() {
+    final String highlighted = "<em>foo</em> <em>bar</em> baz qux quux corge grault <em>garply</em> waldo";
+
+    final Map<String, List<String>> result = HighlightProcessor.process(Map.of("test-search", List.of(highlighted)), TAG_NAME, 10);
+    final String[] expected = FragmentHelper.fragmentHighlightInformation(HighlightHelper.mergeContiguousElements(highlighted, TAG_NAME), TAG_NAME, 10);
+
+    assertThat(result.get("test-search"), contains(expected));
+  }
+
+  @Test
+  void givenSnippetWithoutHighlighting_whenProcessing_thenNoFragmentIsCreated() {
+    final Map<String, List<String>> result = HighlightProcessor.process(Map.of("test-search", List.of("foo bar")), TAG_NAME, 10);
+
+    assertThat(result.get("test-search"), empty());
+  }
+}